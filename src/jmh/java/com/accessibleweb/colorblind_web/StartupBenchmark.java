@@ -0,0 +1,53 @@
+package com.accessibleweb.colorblind_web;
+
+import com.accessibleweb.repository.AnalysisHistoryStore;
+import com.accessibleweb.service.ColorService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the web application versus the lean entrypoint, measured as the time until the
+ * analysis beans are ready. Every sample is a fresh forked JVM, so class loading is included.
+ *
+ * mvn -Pbenchmarks verify -DskipTests -Djmh.args=StartupBenchmark
+ * With -Plean also built, append "-jvmArgsAppend -Dspring.aot.enabled=true" to time the AOT
+ * initializer for the lean benchmark only (the web application has no AOT initializer).
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Thread)
+public class StartupBenchmark {
+
+    private static final String[] ARGS = {"--server.port=0", "--history.local.dir=target/startup-history"};
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public Object webApplication() {
+        context = SpringApplication.run(ColorblindWebApplication.class, ARGS);
+        return ready(context);
+    }
+
+    @Benchmark
+    public Object leanApplication() {
+        context = LeanAnalysisApplication.start(ARGS);
+        return ready(context);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        if (context != null) context.close();
+    }
+
+    // The lean context is lazy, so both variants are timed until the beans an analysis needs exist
+    private static Object ready(ConfigurableApplicationContext context) {
+        context.getBean(AnalysisHistoryStore.class);
+        return context.getBean(ColorService.class);
+    }
+}
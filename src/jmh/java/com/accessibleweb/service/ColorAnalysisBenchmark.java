@@ -0,0 +1,38 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColorAnalysisBenchmark {
+
+    @Param({"blog", "bootstrap", "tailwind"})
+    public String fixture;
+
+    @Param({"default", "strict"})
+    public String mode;
+
+    private Fixtures.Site site;
+    private ColorService colorService;
+
+    @Setup
+    public void setUp() {
+        site = Fixtures.load(fixture);
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry(), 100);
+        colorService = new ColorService(new FixtureWebScraperService(site, pipelineMetrics), pipelineMetrics,
+                new IncrementalAuditCache(1000, 60000), new AccessibleColorSolver());
+    }
+
+    @Benchmark
+    public AnalysisResult analyzeAccessibility() {
+        return colorService.analyzeAccessibility(site.url(), mode);
+    }
+}
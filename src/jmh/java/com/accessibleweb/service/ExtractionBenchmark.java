@@ -0,0 +1,81 @@
+package com.accessibleweb.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    private static final Pattern RAW_COLOR = Pattern.compile(
+            "#[0-9a-fA-F]{3,8}\\b|rgba?\\([^)]*\\)|\\b(?:white|black|red|blue|green|gray|transparent)\\b");
+
+    @Param({"blog", "bootstrap", "tailwind"})
+    public String fixture;
+
+    private Fixtures.Site site;
+    private FixtureWebScraperService scraper;
+    private Map<String, Set<String>> extractedSets;
+    private List<String> rawColors;
+
+    @Setup
+    public void setUp() {
+        site = Fixtures.load(fixture);
+        scraper = new FixtureWebScraperService(site, new PipelineMetrics(new SimpleMeterRegistry(), 100));
+
+        extractedSets = newColorSets();
+        scraper.extractColorsByType(site.css(), extractedSets);
+
+        rawColors = new ArrayList<>();
+        Matcher matcher = RAW_COLOR.matcher(site.css());
+        while (matcher.find() && rawColors.size() < 10_000) {
+            rawColors.add(matcher.group());
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> extractColors() {
+        return scraper.extractColors(site.url());
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> extractColorsByType() {
+        Map<String, Set<String>> colorSets = newColorSets();
+        scraper.extractColorsByType(site.css(), colorSets);
+        return colorSets;
+    }
+
+    @Benchmark
+    public Map<String, String> addPrioritizedColors() {
+        Map<String, String> colors = new LinkedHashMap<>();
+        scraper.addPrioritizedColors(extractedSets.get("button"), colors, "button", 10);
+        scraper.addPrioritizedColors(extractedSets.get("background"), colors, "background", 15);
+        scraper.addPrioritizedColors(extractedSets.get("text"), colors, "text", 20);
+        return colors;
+    }
+
+    @Benchmark
+    public void normalizeColor(Blackhole blackhole) {
+        for (String color : rawColors) {
+            blackhole.consume(scraper.normalizeColor(color));
+        }
+    }
+
+    private static Map<String, Set<String>> newColorSets() {
+        Map<String, Set<String>> colorSets = new HashMap<>();
+        colorSets.put("button", new LinkedHashSet<>());
+        colorSets.put("background", new LinkedHashSet<>());
+        colorSets.put("text", new LinkedHashSet<>());
+        return colorSets;
+    }
+}
@@ -0,0 +1,34 @@
+package com.accessibleweb.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+// WebScraperService with fetching stubbed out: pages and stylesheets come from a fixture site
+public class FixtureWebScraperService extends WebScraperService {
+
+    private final Fixtures.Site site;
+
+    public FixtureWebScraperService(Fixtures.Site site, PipelineMetrics pipelineMetrics) {
+        this(site, pipelineMetrics, new OriginHealthTracker(5, 30000, 1, 0, 1000, 3.0, 10000, 100, new SimpleMeterRegistry()),
+                new IncrementalAuditCache(1000, 60000));
+    }
+
+    private FixtureWebScraperService(Fixtures.Site site, PipelineMetrics pipelineMetrics,
+                                     OriginHealthTracker originHealthTracker, IncrementalAuditCache auditCache) {
+        super(originHealthTracker, pipelineMetrics, auditCache,
+                new BackgroundImageSampler(originHealthTracker, pipelineMetrics, auditCache,
+                        new String[]{"example.com"}, 4, 64, 8, 64, 5242880, 5000));
+        this.site = site;
+    }
+
+    @Override
+    Document fetchPage(String url) {
+        return Jsoup.parse(site.html(), url);
+    }
+
+    @Override
+    String fetchStylesheet(String cssUrl) {
+        return site.css();
+    }
+}
@@ -0,0 +1,112 @@
+package com.accessibleweb.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+// Fixture pages and stylesheets used by the benchmarks; all content is local so no network is needed
+public final class Fixtures {
+
+    public static final String BOOTSTRAP_CSS = "META-INF/resources/webjars/bootstrap/5.3.3/css/bootstrap.css";
+
+    private static final String[] PALETTES = {
+            "slate", "gray", "zinc", "neutral", "stone", "red", "orange", "amber", "yellow", "lime", "green",
+            "emerald", "teal", "cyan", "sky", "blue", "indigo", "violet", "purple", "fuchsia", "pink", "rose"
+    };
+    private static final int[] SHADES = {50, 100, 200, 300, 400, 500, 600, 700, 800, 900, 950};
+    private static final String[][] UTILITIES = {
+            {"bg", "background-color"}, {"text", "color"}, {"border", "border-color"},
+            {"outline", "outline-color"}, {"decoration", "text-decoration-color"}, {"accent", "accent-color"},
+            {"caret", "caret-color"}, {"fill", "fill"}, {"stroke", "stroke"}, {"ring", "--tw-ring-color"}
+    };
+    private static final String[] VARIANTS = {
+            "", "hover", "focus", "active", "disabled", "group-hover", "focus-visible", "sm", "md", "lg", "xl", "dark"
+    };
+
+    public record Site(String name, String url, String html, String css) {}
+
+    private Fixtures() {}
+
+    public static Site load(String name) {
+        String url = "https://" + name + ".example.com/";
+        return switch (name) {
+            case "blog" -> new Site(name, url, resource("fixtures/blog.html"), resource("fixtures/blog.css"));
+            case "bootstrap" -> new Site(name, url, resource("fixtures/bootstrap.html"), resource(BOOTSTRAP_CSS));
+            case "tailwind" -> new Site(name, url, resource("fixtures/tailwind.html"), tailwindBuild(2 * 1024 * 1024));
+            default -> throw new IllegalArgumentException("Unknown fixture: " + name);
+        };
+    }
+
+    /**
+     * An unpurged Tailwind-style utility build, generated deterministically rather than
+     * checked in so the repository doesn't carry a 2MB stylesheet.
+     */
+    static String tailwindBuild(int targetBytes) {
+        StringBuilder css = new StringBuilder(targetBytes + 1024);
+        css.append("*,:after,:before{box-sizing:border-box;border:0 solid #e5e7eb}\n");
+        css.append("body{margin:0;line-height:inherit;color:#1e293b;background-color:#f8fafc}\n");
+
+        for (String variant : VARIANTS) {
+            for (String[] utility : UTILITIES) {
+                for (int p = 0; p < PALETTES.length; p++) {
+                    for (int s = 0; s < SHADES.length; s++) {
+                        if (css.length() >= targetBytes) return css.toString();
+                        appendRule(css, variant, utility, PALETTES[p], SHADES[s], shadeColor(p, s));
+                    }
+                }
+            }
+        }
+        return css.toString();
+    }
+
+    private static void appendRule(StringBuilder css, String variant, String[] utility, String palette, int shade, int[] rgb) {
+        String className = utility[0] + "-" + palette + "-" + shade;
+        css.append('.');
+        if (!variant.isEmpty()) css.append(variant).append("\\:");
+        css.append(className);
+        if (variant.equals("hover") || variant.equals("focus") || variant.equals("active") || variant.equals("disabled")) {
+            css.append(':').append(variant);
+        }
+        css.append("{--tw-").append(utility[0]).append("-opacity:1;")
+                .append(utility[1]).append(':')
+                .append(String.format("#%02x%02x%02x", rgb[0], rgb[1], rgb[2]))
+                .append(";}\n");
+    }
+
+    // Spreads hues around the wheel and shades from light to dark, roughly like Tailwind's palette
+    private static int[] shadeColor(int palette, int shade) {
+        double hue = palette * (360.0 / PALETTES.length);
+        double lightness = 0.97 - shade * 0.085;
+        double saturation = palette < 5 ? 0.12 : 0.75;
+        return hslToRgb(hue, saturation, lightness);
+    }
+
+    private static int[] hslToRgb(double h, double s, double l) {
+        double c = (1 - Math.abs(2 * l - 1)) * s;
+        double x = c * (1 - Math.abs((h / 60) % 2 - 1));
+        double m = l - c / 2;
+        double[] rgb = switch ((int) (h / 60) % 6) {
+            case 0 -> new double[]{c, x, 0};
+            case 1 -> new double[]{x, c, 0};
+            case 2 -> new double[]{0, c, x};
+            case 3 -> new double[]{0, x, c};
+            case 4 -> new double[]{x, 0, c};
+            default -> new double[]{c, 0, x};
+        };
+        return new int[]{
+                (int) Math.round((rgb[0] + m) * 255),
+                (int) Math.round((rgb[1] + m) * 255),
+                (int) Math.round((rgb[2] + m) * 255)
+        };
+    }
+
+    private static String resource(String path) {
+        try (InputStream in = Fixtures.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) throw new IllegalStateException("Missing fixture: " + path);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing one analysis response: the typed result through its streaming serializer versus
+ * the nested maps the service used to build, in each wire format. Bytes per response are printed
+ * during setup; allocations per response come from the gc profiler (gc.alloc.rate.norm).
+ *
+ * mvn -Pbenchmarks verify -DskipTests -Djmh.args="ResponseSerializationBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"blog", "tailwind"})
+    public String fixture;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private AnalysisResult result;
+    private Map<String, Object> legacy;
+
+    @Setup
+    public void setUp() throws Exception {
+        Fixtures.Site site = Fixtures.load(fixture);
+        PipelineMetrics pipelineMetrics = new PipelineMetrics(new SimpleMeterRegistry(), 100);
+        ColorService colorService = new ColorService(new FixtureWebScraperService(site, pipelineMetrics), pipelineMetrics,
+                new IncrementalAuditCache(1000, 60000), new AccessibleColorSolver());
+
+        mapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().findAndAddModules().build();
+            case "smile" -> SmileMapper.builder().findAndAddModules().build();
+            default -> JsonMapper.builder().findAndAddModules().build();
+        };
+        result = colorService.analyzeAccessibility(site.url(), "default");
+        legacy = legacyMap(result);
+
+        System.out.printf("%n%s/%s: record %d bytes, map %d bytes%n", fixture, format,
+                mapper.writeValueAsBytes(result).length, mapper.writeValueAsBytes(legacy).length);
+    }
+
+    @Benchmark
+    public byte[] typedResult() throws Exception {
+        return mapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] nestedMaps() throws Exception {
+        return mapper.writeValueAsBytes(legacy);
+    }
+
+    // The response as ColorService assembled it before the typed model
+    private static Map<String, Object> legacyMap(AnalysisResult result) {
+        AnalysisResult.ColorAnalysis analysis = result.colorAnalysis();
+        AnalysisResult.Contrast contrast = analysis.contrast();
+
+        Map<String, Object> colorAnalysis = new LinkedHashMap<>();
+        colorAnalysis.put("primaryColors", Map.of(
+                "background", Map.of("value", analysis.primaryColors().background().value(),
+                        "source", analysis.primaryColors().background().source()),
+                "text", Map.of("value", analysis.primaryColors().text().value(),
+                        "source", analysis.primaryColors().text().source())));
+        colorAnalysis.put("contrast", Map.of(
+                "ratio", contrast.ratio(),
+                "rating", contrast.rating(),
+                "meetsRequirements", Map.of(
+                        "AA", contrast.meetsRequirements().aa(),
+                        "AAA", contrast.meetsRequirements().aaa(),
+                        "strict", contrast.meetsRequirements().strict())));
+        if (analysis.suggestion() != null) {
+            colorAnalysis.put("suggestion", analysis.suggestion());
+        }
+
+        Map<String, List<String>> rawData = new LinkedHashMap<>();
+        rawData.put("backgrounds", result.rawData().backgrounds());
+        rawData.put("textColors", result.rawData().textColors());
+        rawData.put("buttons", result.rawData().buttons());
+        if (!result.rawData().other().isEmpty()) {
+            rawData.put("other", result.rawData().other());
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("analysisMode", result.analysisMode());
+        map.put("colorAnalysis", colorAnalysis);
+        map.put("accessibility", Map.of(
+                "summary", result.accessibility().summary(),
+                "warnings", result.accessibility().warnings(),
+                "checks", Map.of(
+                        "colorblindSafe", result.accessibility().checks().colorblindSafe(),
+                        "lowLightVisible", result.accessibility().checks().lowLightVisible(),
+                        "minimumContrast", result.accessibility().checks().minimumContrast())));
+        map.put("rawData", rawData);
+        return map;
+    }
+}
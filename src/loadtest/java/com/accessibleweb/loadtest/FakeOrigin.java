@@ -0,0 +1,175 @@
+package com.accessibleweb.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local origins serving the fixture pages and stylesheets with injected latency and errors.
+ * Each origin host is its own loopback address (127.0.0.1, 127.0.0.2, ...) on a shared port, so the
+ * application sees distinct hosts for breakers and metrics. A slowFraction of them, spread evenly,
+ * answer after slowLatencyMs instead of latencyMs. Addresses past 127.0.0.1 work out of the box
+ * on Linux; other systems need loopback aliases or hosts=1.
+ */
+public class FakeOrigin implements AutoCloseable {
+
+    private static final Map<String, String[]> ROUTES = Map.of(
+            "/blog", new String[]{"fixtures/blog.html", "text/html; charset=utf-8"},
+            "/bootstrap", new String[]{"fixtures/bootstrap.html", "text/html; charset=utf-8"},
+            "/css/blog.css", new String[]{"fixtures/blog.css", "text/css"},
+            "/css/bootstrap.css", new String[]{"META-INF/resources/webjars/bootstrap/5.3.3/css/bootstrap.css", "text/css"}
+    );
+
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final ExecutorService executor;
+    private final Map<String, byte[]> bodies = new HashMap<>();
+    private final int jitterMs;
+    private final double errorRate;
+    private final int slowHosts;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong slowRequests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    public FakeOrigin(int hosts, double slowFraction, int latencyMs, int slowLatencyMs, int jitterMs, double errorRate)
+            throws IOException {
+        if (hosts < 1 || hosts > 254) throw new IllegalArgumentException("hosts must be between 1 and 254");
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+
+        for (Map.Entry<String, String[]> route : ROUTES.entrySet()) {
+            bodies.put(route.getKey(), load(route.getValue()[0]));
+        }
+
+        // Latency is simulated by sleeping, so every in-flight request needs its own thread
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-origin");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int port = 0;
+        int slow = 0;
+        for (int host = 0; host < hosts; host++) {
+            boolean isSlow = Math.floor((host + 1) * slowFraction) > Math.floor(host * slowFraction);
+            if (isSlow) slow++;
+            int hostLatencyMs = isSlow ? slowLatencyMs : latencyMs;
+
+            String address = "127.0.0." + (host + 1);
+            HttpServer server;
+            try {
+                server = HttpServer.create(new InetSocketAddress(address, port), 4096);
+            } catch (IOException e) {
+                close();
+                throw new IOException("Cannot bind fake origin to " + address + "; add loopback aliases or use fewer hosts", e);
+            }
+            server.setExecutor(executor);
+            server.createContext("/", exchange -> handle(exchange, hostLatencyMs, isSlow));
+            server.start();
+            servers.add(server);
+            port = server.getAddress().getPort();
+        }
+        slowHosts = slow;
+    }
+
+    public List<String> baseUrls() {
+        int port = servers.get(0).getAddress().getPort();
+        List<String> urls = new ArrayList<>();
+        for (int host = 1; host <= servers.size(); host++) {
+            urls.add("http://127.0.0." + host + ":" + port + "/");
+        }
+        return urls;
+    }
+
+    // Hosts for the application's allow-list
+    public List<String> hosts() {
+        List<String> hosts = new ArrayList<>();
+        for (int host = 1; host <= servers.size(); host++) {
+            hosts.add("127.0.0." + host);
+        }
+        return hosts;
+    }
+
+    public int slowHostCount() {
+        return slowHosts;
+    }
+
+    public long requestCount() {
+        return requests.get();
+    }
+
+    public long slowRequestCount() {
+        return slowRequests.get();
+    }
+
+    public long notModifiedCount() {
+        return notModified.get();
+    }
+
+    @Override
+    public void close() {
+        servers.forEach(server -> server.stop(0));
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange, int latencyMs, boolean slow) throws IOException {
+        requests.incrementAndGet();
+        if (slow) slowRequests.incrementAndGet();
+        try (exchange) {
+            sleep(latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextInt(jitterMs + 1) : 0));
+
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = bodies.get(path);
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            // Fixtures never change, so a matching validator always gets a 304
+            String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", ROUTES.get(path)[1]);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static void sleep(int millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] load(String resource) throws IOException {
+        try (InputStream in = FakeOrigin.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("Missing fixture: " + resource);
+            return in.readAllBytes();
+        }
+    }
+}
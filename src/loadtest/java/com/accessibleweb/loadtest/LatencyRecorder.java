@@ -0,0 +1,36 @@
+package com.accessibleweb.loadtest;
+
+import java.util.Arrays;
+
+// Collects per-request latencies and outcomes for one endpoint at one concurrency level
+class LatencyRecorder {
+
+    private long[] latencies = new long[4096];
+    private int count;
+    private long errors;
+
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) errors++;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized double errorRate() {
+        return count == 0 ? 0 : (double) errors / count;
+    }
+
+    // Nearest-rank percentile in milliseconds
+    synchronized double percentileMillis(double p) {
+        if (count == 0) return 0;
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p * count) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,187 @@
+package com.accessibleweb.loadtest;
+
+import com.accessibleweb.colorblind_web.ColorblindWebApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline load test: starts fake origins and the application in this JVM, then drives
+ * the analysis and proxy endpoints at each concurrency level and reports throughput,
+ * latency percentiles, error rates and heap/GC usage. Requests rotate across the origin
+ * hosts, a slow-fraction of which answer after slow-latency. Heap and GC figures cover the
+ * whole JVM, so they include the driver's own overhead.
+ *
+ * Options (all --key=value): levels=64,256,1024 duration=20 warmup=5 hosts=64 slow-fraction=0.1
+ * latency=200 slow-latency=3000 jitter=50 error-rate=0 page=blog endpoints=analyze,proxy,resource
+ * incremental=false
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int[] levels = Arrays.stream(options.getOrDefault("levels", "64,256,1024").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "20"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        String page = options.getOrDefault("page", "blog");
+        List<String> endpoints = List.of(options.getOrDefault("endpoints", "analyze,proxy,resource").split(","));
+        boolean incremental = Boolean.parseBoolean(options.getOrDefault("incremental", "false"));
+
+        try (FakeOrigin origin = new FakeOrigin(
+                Integer.parseInt(options.getOrDefault("hosts", "64")),
+                Double.parseDouble(options.getOrDefault("slow-fraction", "0.1")),
+                Integer.parseInt(options.getOrDefault("latency", "200")),
+                Integer.parseInt(options.getOrDefault("slow-latency", "3000")),
+                Integer.parseInt(options.getOrDefault("jitter", "50")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0")))) {
+
+            ConfigurableApplicationContext app = SpringApplication.run(ColorblindWebApplication.class,
+                    "--server.port=0",
+                    "--accessibility.allowed-domains=" + String.join(",", origin.hosts()),
+                    "--ratelimit.enabled=false",
+                    "--logging.level.root=WARN");
+            try {
+                String appBase = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+                Map<String, List<URI>> targets = targets(appBase, origin.baseUrls(), page, endpoints, incremental);
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+
+                System.out.printf("Origins %s .. %s (%d hosts, %d slow, page=%s), application %s%n",
+                        origin.baseUrls().get(0), origin.baseUrls().get(origin.baseUrls().size() - 1),
+                        origin.baseUrls().size(), origin.slowHostCount(), page, appBase);
+                if (warmupSeconds > 0) {
+                    runLevel(client, targets, levels[0], warmupSeconds);
+                }
+
+                System.out.printf("%n%-6s %-9s %9s %9s %10s %10s %10s %8s%n",
+                        "conc", "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+                for (int level : levels) {
+                    long gcCountBefore = gcCount();
+                    long gcTimeBefore = gcTimeMillis();
+
+                    Map<String, LatencyRecorder> results = runLevel(client, targets, level, durationSeconds);
+
+                    for (Map.Entry<String, LatencyRecorder> result : results.entrySet()) {
+                        LatencyRecorder recorder = result.getValue();
+                        System.out.printf("%-6d %-9s %9d %9.1f %10.1f %10.1f %10.1f %7.2f%%%n",
+                                level, result.getKey(), recorder.count(),
+                                recorder.count() / (double) durationSeconds,
+                                recorder.percentileMillis(0.50), recorder.percentileMillis(0.99),
+                                recorder.percentileMillis(1.0), recorder.errorRate() * 100);
+                    }
+
+                    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+                    System.out.printf("       heap %d/%d MB, gc %d collections, %d ms%n",
+                            heap.getUsed() >> 20, heap.getMax() >> 20,
+                            gcCount() - gcCountBefore, gcTimeMillis() - gcTimeBefore);
+                }
+                System.out.printf("%nOrigins served %d requests (%d from slow hosts, %d not modified)%n",
+                        origin.requestCount(), origin.slowRequestCount(), origin.notModifiedCount());
+            } finally {
+                app.close();
+            }
+        }
+    }
+
+    // One url per origin host for each endpoint
+    private static Map<String, List<URI>> targets(String appBase, List<String> originBases, String page,
+                                                  List<String> endpoints, boolean incremental) {
+        Map<String, List<URI>> targets = new LinkedHashMap<>();
+        for (String endpoint : endpoints) {
+            List<URI> uris = new ArrayList<>();
+            for (String originBase : originBases) {
+                String pageUrl = URLEncoder.encode(originBase + page, StandardCharsets.UTF_8);
+                String encodedBase = URLEncoder.encode(originBase, StandardCharsets.UTF_8);
+                uris.add(switch (endpoint.trim()) {
+                    case "analyze" -> URI.create(appBase + "/api/accessibility?url=" + pageUrl
+                            + (incremental ? "&incremental=true" : ""));
+                    case "proxy" -> URI.create(appBase + "/api/accessibility/proxy?url=" + pageUrl);
+                    case "resource" ->
+                            URI.create(appBase + "/api/accessibility/proxy/css/" + page + ".css?baseUrl=" + encodedBase);
+                    default -> throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+                });
+            }
+            targets.put(endpoint.trim(), uris);
+        }
+        return targets;
+    }
+
+    // Each worker cycles through the endpoints back to back, moving to the next origin host each round
+    private static Map<String, LatencyRecorder> runLevel(HttpClient client, Map<String, List<URI>> targets,
+                                                         int concurrency, int durationSeconds) throws InterruptedException {
+        Map<String, LatencyRecorder> results = new LinkedHashMap<>();
+        targets.keySet().forEach(name -> results.put(name, new LatencyRecorder()));
+        List<Map.Entry<String, List<URI>>> mix = new ArrayList<>(targets.entrySet());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            int offset = worker;
+            workers.execute(() -> {
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    Map.Entry<String, List<URI>> target = mix.get(i % mix.size());
+                    List<URI> hosts = target.getValue();
+                    HttpRequest request = HttpRequest.newBuilder(hosts.get((i / mix.size()) % hosts.size()))
+                            .timeout(Duration.ofSeconds(60))
+                            .GET()
+                            .build();
+                    long start = System.nanoTime();
+                    boolean success;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        success = response.statusCode() == 200;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        success = false;
+                    }
+                    results.get(target.getKey()).record(System.nanoTime() - start, success);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(durationSeconds + 120L, TimeUnit.SECONDS);
+        return results;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,71 @@
+package com.accessibleweb.colorblind_web;
+
+import com.accessibleweb.repository.DynamoDbAnalysisHistoryStore;
+import com.accessibleweb.repository.LocalAnalysisHistoryStore;
+import com.accessibleweb.service.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Lean entrypoint for short-lived function instances. Instead of component scanning and
+ * auto-configuration it imports only the analysis beans into a non-web context with lazy
+ * initialization, so no servlet container, executor pools or actuator start, and AWS clients
+ * are only built if the configured history backend needs them.
+ *
+ * Run a single analysis with: --url=https://... [--mode=default|strict]
+ * or deploy LeanAnalysisHandler::handleRequest as a function handler.
+ *
+ * Deliberately not a @Configuration class, so the web application's component scan skips it.
+ */
+@Import({
+        WebScraperService.class, ColorService.class, PipelineMetrics.class, IncrementalAuditCache.class,
+        OriginHealthTracker.class, AccessibleColorSolver.class, BackgroundImageSampler.class, ShardWorker.class,
+        LocalAnalysisHistoryStore.class, DynamoDbAnalysisHistoryStore.class
+})
+public class LeanAnalysisApplication {
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = start(args)) {
+            String url = context.getEnvironment().getProperty("url");
+            if (url == null) {
+                System.err.println("Usage: LeanAnalysisApplication --url=<page url> [--mode=default|strict]");
+                System.exit(2);
+            }
+
+            LeanAnalysisHandler handler = new LeanAnalysisHandler(context);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            Object result = handler.handle(objectMapper.createObjectNode()
+                    .put("url", url)
+                    .put("mode", context.getEnvironment().getProperty("mode", "default")));
+            System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(result));
+        }
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(LeanAnalysisApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .lazyInitialization(true)
+                .profiles("lean")
+                .run(args);
+    }
+
+    @Bean
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    ObjectMapper objectMapper() {
+        return JsonMapper.builder().findAndAddModules().build();
+    }
+}
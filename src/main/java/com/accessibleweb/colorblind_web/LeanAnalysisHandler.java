@@ -0,0 +1,79 @@
+package com.accessibleweb.colorblind_web;
+
+import com.accessibleweb.model.AnalysisRecord;
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.BatchShard;
+import com.accessibleweb.repository.AnalysisHistoryStore;
+import com.accessibleweb.service.ColorService;
+import com.accessibleweb.service.ShardWorker;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+
+/**
+ * Function handler for the lean entrypoint. A request is either {"url": ..., "mode": ...} for a
+ * single analysis, or a BatchShard sent by LambdaShardInvoker, answered with a ShardResult.
+ * Callers are trusted services, so the web API's domain allow-list isn't applied here.
+ */
+@Slf4j
+public class LeanAnalysisHandler {
+
+    private static ApplicationContext sharedContext;
+
+    private final ApplicationContext context;
+    private final ObjectMapper objectMapper;
+
+    // Used by the function runtime; the context is shared by all invocations on an instance
+    public LeanAnalysisHandler() {
+        this(sharedContext());
+    }
+
+    LeanAnalysisHandler(ApplicationContext context) {
+        this.context = context;
+        this.objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    public void handleRequest(InputStream input, OutputStream output) throws IOException {
+        JsonNode request = objectMapper.readTree(input);
+        objectMapper.writeValue(output, handle(request));
+    }
+
+    public Object handle(JsonNode request) throws IOException {
+        if (request.has("urls")) {
+            return context.getBean(ShardWorker.class).run(objectMapper.treeToValue(request, BatchShard.class));
+        }
+
+        String url = request.path("url").asText(null);
+        if (url == null) {
+            throw new IllegalArgumentException("Request needs a url or a batch shard");
+        }
+        AnalysisResult result = context.getBean(ColorService.class)
+                .analyzeAccessibility(url, request.path("mode").asText("default"));
+        recordHistory(url, result);
+        return result;
+    }
+
+    // Best-effort like the web API; flushed straight away because the instance may be frozen after replying
+    private void recordHistory(String url, AnalysisResult result) {
+        try {
+            AnalysisHistoryStore historyStore = context.getBean(AnalysisHistoryStore.class);
+            historyStore.append(new AnalysisRecord<>(url, Instant.now(), result));
+            historyStore.flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to record analysis history for {}", url, e);
+        }
+    }
+
+    private static synchronized ApplicationContext sharedContext() {
+        if (sharedContext == null) {
+            sharedContext = LeanAnalysisApplication.start();
+        }
+        return sharedContext;
+    }
+}
@@ -0,0 +1,58 @@
+package com.accessibleweb.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Runs analysis and proxy work off the servlet threads so slow origins can't exhaust Tomcat's pool
+// Scheduling drives the watch-list re-audits, which themselves run on the analysis executor
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    // Interactive requests and local batch shards share this pool; see PriorityTaskExecutor.
+    // The pool only grows past its core size once the queue is full, so the core size bounds
+    // concurrent fetches. It is kept small on purpose: work beyond it waits in the priority
+    // queue, which is where interactive requests overtake batch work. Idle core threads time
+    // out so the pool shrinks when quiet.
+    @Bean(name = "analysisExecutor")
+    public PriorityTaskExecutor analysisExecutor(
+            @Value("${analysis.executor.core-size:64}") int coreSize,
+            @Value("${analysis.executor.max-size:64}") int maxSize,
+            @Value("${analysis.executor.queue-capacity:1000}") int queueCapacity,
+            @Value("${analysis.executor.batch-queue-capacity:500}") int batchQueueCapacity,
+            @Value("${analysis.executor.max-concurrent-batch:8}") int maxConcurrentBatch,
+            MeterRegistry meterRegistry
+    ) {
+        PriorityTaskExecutor executor = new PriorityTaskExecutor(batchQueueCapacity, maxConcurrentBatch, meterRegistry);
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("analysis-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Waits on remote shard invocations, which would otherwise tie up analysis threads
+    @Bean(name = "batchExecutor")
+    public ThreadPoolTaskExecutor batchExecutor(
+            @Value("${batch.executor.core-size:8}") int coreSize,
+            @Value("${batch.executor.max-size:8}") int maxSize,
+            @Value("${batch.executor.queue-capacity:10000}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("batch-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
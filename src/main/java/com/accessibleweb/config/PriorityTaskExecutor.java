@@ -0,0 +1,233 @@
+package com.accessibleweb.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Analysis executor backed by a bounded priority queue. Interactive requests are dequeued ahead of
+ * batch work (FIFO within a priority), and batch work may only fill part of the queue so a backlog
+ * of batch shards never crowds out interactive requests. At most maxConcurrentBatch batch tasks are
+ * handed to the pool at a time; the rest wait here until one finishes, so batch work can never
+ * occupy every worker. A full queue rejects straight away with TaskRejectedException, which
+ * callers turn into a 503.
+ */
+public class PriorityTaskExecutor extends ThreadPoolTaskExecutor {
+
+    public enum Priority { INTERACTIVE, BATCH }
+
+    private final int batchQueueCapacity;
+    private final int maxConcurrentBatch;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Priority, Counter> rejections = new EnumMap<>(Priority.class);
+    // Batch tasks over the concurrency cap, in submission order; also guards admittedBatchTasks
+    private final Deque<PrioritizedTask<?>> heldBatchTasks = new ArrayDeque<>();
+    private int admittedBatchTasks;
+    private volatile BoundedPriorityQueue queue;
+
+    public PriorityTaskExecutor(int batchQueueCapacity, int maxConcurrentBatch, MeterRegistry meterRegistry) {
+        this.batchQueueCapacity = batchQueueCapacity;
+        this.maxConcurrentBatch = Math.max(1, maxConcurrentBatch);
+
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("colorblind.admission.queue.depth", this, executor -> executor.queuedTasks(priority))
+                    .description("Analysis tasks waiting for a worker thread")
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            rejections.put(priority, Counter.builder("colorblind.admission.rejections")
+                    .description("Requests shed by admission control")
+                    .tag("reason", "queue-full")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+
+        setRejectedExecutionHandler((task, executor) -> {
+            rejections.get(priorityOf(task)).increment();
+            throw new RejectedExecutionException("Analysis queue is full");
+        });
+    }
+
+    public Future<?> submit(Priority priority, Runnable task) {
+        PrioritizedTask<Object> future = new PrioritizedTask<>(Executors.callable(task), priority, sequence.getAndIncrement());
+        execute(future);
+        return future;
+    }
+
+    public <T> CompletableFuture<T> supply(Priority priority, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        submit(priority, () -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Tasks submitted without a priority are treated as interactive. Batch tasks over their share
+     * are refused here rather than by the queue, since a refused offer would make the pool start
+     * extra threads to run them.
+     */
+    @Override
+    public void execute(Runnable task) {
+        PrioritizedTask<?> prioritized = task instanceof PrioritizedTask<?> existing ? existing
+                : new PrioritizedTask<>(Executors.callable(task), Priority.INTERACTIVE, sequence.getAndIncrement());
+
+        if (prioritized.priority == Priority.BATCH) {
+            executeBatch(prioritized);
+        } else {
+            super.execute(prioritized);
+        }
+    }
+
+    private void executeBatch(PrioritizedTask<?> task) {
+        synchronized (heldBatchTasks) {
+            // Only batch work counts against the batch share; interactive bursts don't shrink it
+            if (queuedTasks(Priority.BATCH) >= batchQueueCapacity) {
+                rejections.get(Priority.BATCH).increment();
+                throw new TaskRejectedException("Batch share of the analysis queue is full");
+            }
+            if (admittedBatchTasks >= maxConcurrentBatch) {
+                heldBatchTasks.add(task);
+                return;
+            }
+            admittedBatchTasks++;
+            task.admitted = true;
+        }
+
+        try {
+            super.execute(task);
+        } catch (RuntimeException e) {
+            synchronized (heldBatchTasks) {
+                admittedBatchTasks--;
+            }
+            throw e;
+        }
+    }
+
+    // An admitted batch task finished (or was cancelled): its slot passes to the oldest held one
+    private void batchTaskDone() {
+        PrioritizedTask<?> next;
+        synchronized (heldBatchTasks) {
+            do {
+                next = heldBatchTasks.poll();
+            } while (next != null && next.isDone());
+
+            if (next == null) {
+                admittedBatchTasks--;
+                return;
+            }
+            next.admitted = true;
+        }
+
+        try {
+            super.execute(next);
+        } catch (RuntimeException e) {
+            // Admitted tasks always fit the queue, so this only happens during shutdown;
+            // cancelling hands the slot on again
+            next.cancel(false);
+        }
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return submit(Priority.INTERACTIVE, task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        PrioritizedTask<T> future = new PrioritizedTask<>(task, Priority.INTERACTIVE, sequence.getAndIncrement());
+        execute(future);
+        return future;
+    }
+
+    @Override
+    protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        queue = new BoundedPriorityQueue(queueCapacity);
+        return queue;
+    }
+
+    // Includes batch tasks held back by the concurrency cap
+    public int queuedTasks(Priority priority) {
+        int count = 0;
+        if (priority == Priority.BATCH) {
+            synchronized (heldBatchTasks) {
+                count = heldBatchTasks.size();
+            }
+        }
+
+        BoundedPriorityQueue current = queue;
+        if (current == null) return count;
+
+        for (Runnable task : current) {
+            if (priorityOf(task) == priority) count++;
+        }
+        return count;
+    }
+
+    private static Priority priorityOf(Runnable task) {
+        return task instanceof PrioritizedTask<?> prioritized ? prioritized.priority : Priority.INTERACTIVE;
+    }
+
+    private static long sequenceOf(Runnable task) {
+        return task instanceof PrioritizedTask<?> prioritized ? prioritized.sequence : Long.MAX_VALUE;
+    }
+
+    private static boolean isAdmittedBatch(Runnable task) {
+        return task instanceof PrioritizedTask<?> prioritized && prioritized.admitted;
+    }
+
+    private final class PrioritizedTask<T> extends FutureTask<T> {
+        private final Priority priority;
+        private final long sequence;
+        // Batch tasks only: counted against maxConcurrentBatch
+        private volatile boolean admitted;
+
+        PrioritizedTask(Callable<T> callable, Priority priority, long sequence) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        protected void done() {
+            if (admitted) batchTaskDone();
+        }
+    }
+
+    // PriorityBlockingQueue is unbounded; offers beyond the capacity are refused, except for admitted
+    // batch tasks, which are already bounded by the concurrency cap
+    private static final class BoundedPriorityQueue extends PriorityBlockingQueue<Runnable> {
+        private final int capacity;
+
+        BoundedPriorityQueue(int capacity) {
+            super(11, Comparator.comparing(PriorityTaskExecutor::priorityOf)
+                    .thenComparingLong(PriorityTaskExecutor::sequenceOf));
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized boolean offer(Runnable task) {
+            return (size() < capacity || isAdmittedBatch(task)) && super.offer(task);
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, capacity - size());
+        }
+    }
+}
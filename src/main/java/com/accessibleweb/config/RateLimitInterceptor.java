@@ -0,0 +1,56 @@
+package com.accessibleweb.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Rejects requests over the client's rate with 429 before any analysis or outbound fetch starts
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    static final String API_KEY_HEADER = "X-API-Key";
+
+    private final TokenBucketRateLimiter limiter;
+    private final Set<String> apiKeys;
+    private final Counter rejections;
+
+    public RateLimitInterceptor(TokenBucketRateLimiter limiter, Set<String> apiKeys, MeterRegistry meterRegistry) {
+        this.limiter = limiter;
+        this.apiKeys = apiKeys;
+        this.rejections = Counter.builder("colorblind.admission.rejections")
+                .description("Requests shed by admission control")
+                .tag("reason", "rate-limit")
+                .tag("priority", "interactive")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        // Deferred results re-dispatch the request; only the original dispatch is charged
+        if (request.getDispatcherType() == DispatcherType.ASYNC || CorsUtils.isPreFlightRequest(request)) return true;
+
+        long waitNanos = limiter.tryAcquire(clientKey(request));
+        if (waitNanos == 0) return true;
+
+        rejections.increment();
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+        return false;
+    }
+
+    // Configured API keys get their own bucket; anyone else, including clients sending an unknown
+    // key, is limited per address so rotating the header can't mint fresh buckets
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return (apiKey != null && apiKeys.contains(apiKey)) ? "key:" + apiKey : "addr:" + request.getRemoteAddr();
+    }
+}
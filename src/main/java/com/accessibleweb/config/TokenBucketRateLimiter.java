@@ -0,0 +1,56 @@
+package com.accessibleweb.config;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token bucket per client key: each client may burst up to the capacity and is then held to the
+ * refill rate. Buckets are kept in a bounded LRU so one-off clients don't accumulate.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double refillPerNanos;
+    private final Map<String, Bucket> buckets;
+
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxClients) {
+        this.capacity = capacity;
+        this.refillPerNanos = refillPerSecond / 1_000_000_000.0;
+        this.buckets = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxClients;
+            }
+        });
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until one will be available
+    public long tryAcquire(String client) {
+        return tryAcquire(client, System.nanoTime());
+    }
+
+    long tryAcquire(String client, long now) {
+        return buckets.computeIfAbsent(client, key -> new Bucket(capacity, now)).tryAcquire(now);
+    }
+
+    private final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNanos);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerNanos);
+        }
+    }
+}
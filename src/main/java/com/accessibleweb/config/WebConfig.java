@@ -0,0 +1,48 @@
+package com.accessibleweb.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Per-client rate limits on the endpoints that trigger analyses or outbound fetches
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final boolean rateLimitEnabled;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final Set<String> apiKeys;
+    private final MeterRegistry meterRegistry;
+
+    public WebConfig(
+            @Value("${ratelimit.enabled:true}") boolean rateLimitEnabled,
+            @Value("${ratelimit.capacity:60}") int capacity,
+            @Value("${ratelimit.refill-per-second:10}") double refillPerSecond,
+            @Value("${ratelimit.max-clients:10000}") int maxClients,
+            @Value("${ratelimit.api-keys:}") String[] apiKeys,
+            MeterRegistry meterRegistry
+    ) {
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.rateLimiter = new TokenBucketRateLimiter(capacity, refillPerSecond, maxClients);
+        this.apiKeys = Arrays.stream(apiKeys).map(String::trim).filter(key -> !key.isEmpty()).collect(Collectors.toSet());
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!rateLimitEnabled) return;
+
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, apiKeys, meterRegistry))
+                .addPathPatterns(
+                        "/api/accessibility",
+                        "/api/accessibility/suggestions",
+                        "/api/accessibility/batch",
+                        "/api/accessibility/proxy",
+                        "/api/accessibility/proxy/**");
+    }
+}
@@ -1,22 +1,55 @@
 package com.accessibleweb.controller;
 
+import com.accessibleweb.config.PriorityTaskExecutor;
+import com.accessibleweb.model.AnalysisRecord;
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.BatchStatus;
+import com.accessibleweb.model.DriftEvent;
+import com.accessibleweb.model.PaletteDrift;
+import com.accessibleweb.model.WatchStatus;
+import com.accessibleweb.model.BatchRequest;
+import com.accessibleweb.repository.AnalysisHistoryStore;
+import com.accessibleweb.service.AccessibleColorSolver;
+import com.accessibleweb.service.BatchAnalysisCoordinator;
 import com.accessibleweb.service.ColorService;
+import com.accessibleweb.service.OriginHealthTracker;
+import com.accessibleweb.service.OriginUnavailableException;
+import com.accessibleweb.service.PipelineMetrics;
+import com.accessibleweb.service.ScrapingException;
+import com.accessibleweb.service.WatchListService;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.jsoup.Connection;
 import org.jsoup.Connection.Response;
 import org.springframework.http.MediaType;
 
 import jakarta.servlet.http.HttpServletRequest; // Fix for HttpServletRequest
 import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/accessibility")
 @CrossOrigin(origins = "http://localhost:3000")
@@ -26,15 +59,198 @@ public class AccessibilityController {
             "^(https?)://[-a-zA-Z0-9+&@#/%?=~_|!:,.;]*[-a-zA-Z0-9+&@#/%=~_|]"
     );
 
-    private static final String[] ALLOWED_DOMAINS = {
-            "w3schools.com", "example.com", "gov.uk", "edu", "org", "gov.in"
-    };
-
     @Autowired
     private ColorService colorService;
 
+    @Autowired
+    private OriginHealthTracker originHealthTracker;
+
+    @Autowired
+    private PipelineMetrics pipelineMetrics;
+
+    @Autowired
+    private AnalysisHistoryStore historyStore;
+
+    @Autowired
+    private BatchAnalysisCoordinator batchCoordinator;
+
+    @Autowired
+    private WatchListService watchListService;
+
+    @Autowired
+    @Qualifier("analysisExecutor")
+    private PriorityTaskExecutor analysisExecutor;
+
+    @Value("${accessibility.allowed-domains:w3schools.com,example.com,gov.uk,edu,org,gov.in}")
+    private String[] allowedDomains;
+
+    @Value("${analysis.deadline-ms:30000}")
+    private long analysisDeadlineMs;
+
+    @Value("${proxy.deadline-ms:25000}")
+    private long proxyDeadlineMs;
+
+    @Value("${admission.retry-after-seconds:2}")
+    private long shedRetryAfterSeconds;
+
+    @Value("${watch.events.timeout-ms:1800000}")
+    private long watchEventsTimeoutMs;
+
+    @Value("${batch.max-urls:1000}")
+    private int maxBatchUrls;
+
     @GetMapping
-    public ResponseEntity<?> analyze(
+    public DeferredResult<ResponseEntity<Object>> analyze(
+            @RequestParam String url,
+            @RequestParam(required = false, defaultValue = "default") String mode,
+            @RequestParam(required = false, defaultValue = "false") boolean timings,
+            @RequestParam(required = false, defaultValue = "false") boolean incremental
+    ) {
+        if (!isValidUrl(url)) {
+            return completed(ResponseEntity.badRequest().body("Invalid URL format"));
+        }
+
+        if (!isDomainAllowed(url)) {
+            return completed(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Domain not allowed for security reasons"));
+        }
+
+        return runWithDeadline(analysisDeadlineMs, () -> {
+            try {
+                if (timings) pipelineMetrics.beginBreakdown();
+                AnalysisResult result = colorService.analyzeAccessibility(url, mode, incremental);
+                recordHistory(url, result);
+
+                if (timings) {
+                    result = result.withTimings(pipelineMetrics.endBreakdown());
+                }
+                return ResponseEntity.ok(result);
+            } catch (OriginUnavailableException e) {
+                return originUnavailable(e, e.getMessage());
+            } catch (ScrapingException e) {
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error processing request: " + e.getMessage());
+            } finally {
+                // Only reached with a breakdown still set when the request failed before endBreakdown()
+                if (timings) pipelineMetrics.clearBreakdown();
+            }
+        });
+    }
+
+    @GetMapping("/suggestions")
+    public DeferredResult<ResponseEntity<Object>> suggestPalette(
+            @RequestParam String url,
+            @RequestParam(required = false, defaultValue = "AA") String level,
+            @RequestParam(required = false, defaultValue = "normal") String vision
+    ) {
+        if (!isValidUrl(url)) {
+            return completed(ResponseEntity.badRequest().body("Invalid URL format"));
+        }
+
+        if (!isDomainAllowed(url)) {
+            return completed(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Domain not allowed for security reasons"));
+        }
+
+        Set<AccessibleColorSolver.Vision> visions;
+        try {
+            visions = AccessibleColorSolver.parseVisions(vision);
+        } catch (IllegalArgumentException e) {
+            return completed(ResponseEntity.badRequest().body("Unknown vision type: " + vision));
+        }
+
+        return runWithDeadline(analysisDeadlineMs, () -> {
+            try {
+                return ResponseEntity.ok(colorService.suggestAccessiblePalette(url, level, visions));
+            } catch (OriginUnavailableException e) {
+                return originUnavailable(e, e.getMessage());
+            } catch (ScrapingException e) {
+                return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("Error processing request: " + e.getMessage());
+            }
+        });
+    }
+
+    @GetMapping("/suggestions/pair")
+    public ResponseEntity<Object> suggestColor(
+            @RequestParam String foreground,
+            @RequestParam String background,
+            @RequestParam(required = false, defaultValue = "AA") String level,
+            @RequestParam(required = false, defaultValue = "normal") String vision
+    ) {
+        Set<AccessibleColorSolver.Vision> visions;
+        try {
+            visions = AccessibleColorSolver.parseVisions(vision);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Unknown vision type: " + vision);
+        }
+
+        return colorService.suggestAccessibleColor(foreground, background, level, visions)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.badRequest().body("Colors must be hex values such as #1a2b3c"));
+    }
+
+    @GetMapping("/history/latest")
+    public ResponseEntity<AnalysisRecord<AnalysisResult>> latestAnalysis(@RequestParam String url) {
+        return historyStore.latest(url, AnalysisResult.class)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<List<AnalysisRecord<AnalysisResult>>> analysisHistory(
+            @RequestParam String url,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        return ResponseEntity.ok(historyStore.range(url,
+                from == null ? Instant.EPOCH : from,
+                to == null ? Instant.now() : to,
+                AnalysisResult.class));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Object> submitBatch(@RequestBody BatchRequest request) {
+        if (request.urls() == null || request.urls().isEmpty()) {
+            return ResponseEntity.badRequest().body("No URLs provided");
+        }
+        if (request.urls().size() > maxBatchUrls) {
+            return ResponseEntity.badRequest().body("Too many URLs: at most " + maxBatchUrls + " per batch");
+        }
+
+        List<String> rejected = request.urls().stream()
+                .filter(url -> url == null || !isValidUrl(url) || !isDomainAllowed(url))
+                .toList();
+        if (!rejected.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Invalid or disallowed URLs",
+                    "urls", rejected));
+        }
+
+        String batchId = batchCoordinator.submit(request.urls(), request.mode());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/accessibility/batch/" + batchId))
+                .body(Map.of("batchId", batchId));
+    }
+
+    @GetMapping("/batch/{batchId}")
+    public ResponseEntity<BatchStatus> batchStatus(@PathVariable String batchId) {
+        return batchCoordinator.status(batchId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/watch")
+    public ResponseEntity<List<WatchStatus>> watchList() {
+        return ResponseEntity.ok(watchListService.watches());
+    }
+
+    @PostMapping("/watch")
+    public ResponseEntity<Object> watchUrl(
             @RequestParam String url,
             @RequestParam(required = false, defaultValue = "default") String mode
     ) {
@@ -47,31 +263,78 @@ public class AccessibilityController {
                     .body("Domain not allowed for security reasons");
         }
 
+        if (!watchListService.watch(url, mode)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Watch list is full");
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("url", url, "mode", mode));
+    }
+
+    @DeleteMapping("/watch")
+    public ResponseEntity<Void> unwatchUrl(@RequestParam String url) {
+        return watchListService.unwatch(url)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/watch/drift")
+    public ResponseEntity<List<AnalysisRecord<PaletteDrift>>> paletteDrift(
+            @RequestParam String url,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to
+    ) {
+        return ResponseEntity.ok(watchListService.drift(url,
+                from == null ? Instant.EPOCH : from,
+                to == null ? Instant.now() : to));
+    }
+
+    // Server-sent "drift" events for every change the watch scheduler detects
+    @GetMapping(path = "/watch/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter watchEvents() {
+        SseEmitter emitter = new SseEmitter(watchEventsTimeoutMs);
+        Consumer<DriftEvent> listener = event -> {
+            try {
+                emitter.send(SseEmitter.event().name("drift").data(event, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        };
+
+        watchListService.addListener(listener);
+        emitter.onCompletion(() -> watchListService.removeListener(listener));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> watchListService.removeListener(listener));
+        return emitter;
+    }
+
+    // History is best-effort: a storage failure shouldn't fail the analysis itself
+    private void recordHistory(String url, AnalysisResult result) {
         try {
-            Map<String, Object> result = colorService.analyzeAccessibility(url, mode);
-            return ResponseEntity.ok(result);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error processing request: " + e.getMessage());
+            historyStore.append(new AnalysisRecord<>(url, Instant.now(), result));
+        } catch (RuntimeException e) {
+            log.warn("Failed to record analysis history for {}", url, e);
         }
     }
 
     @GetMapping("/proxy")
-    public ResponseEntity<String> proxyWebsite(@RequestParam String url) {
+    public DeferredResult<ResponseEntity<String>> proxyWebsite(@RequestParam String url) {
         if (!isValidUrl(url)) {
-            return ResponseEntity.badRequest()
-                    .body("Invalid URL format. Must start with http:// or https://");
+            return completed(ResponseEntity.badRequest()
+                    .body("Invalid URL format. Must start with http:// or https://"));
         }
 
         if (!isDomainAllowed(url)) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body("Domain not allowed for security reasons");
+            return completed(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("Domain not allowed for security reasons"));
         }
 
+        return runWithDeadline(proxyDeadlineMs, () -> fetchProxiedPage(url));
+    }
+
+    private ResponseEntity<String> fetchProxiedPage(String url) {
         try {
             // Configure connection with browser-like headers
-            Connection connection = Jsoup.connect(url)
-                    .timeout(20000)
+            Response response = originHealthTracker.execute(url, 20000, timeout -> failOnServerError(url, Jsoup.connect(url)
+                    .timeout(timeout)
                     .followRedirects(true)
                     .maxBodySize(10 * 1024 * 1024)
                     .ignoreHttpErrors(true)
@@ -83,9 +346,8 @@ public class AccessibilityController {
                     .header("Accept-Encoding", "gzip, deflate, br")
                     .header("Connection", "keep-alive")
                     .header("Cache-Control", "no-cache")
-                    .header("Pragma", "no-cache");
-
-            Response response = connection.execute();
+                    .header("Pragma", "no-cache")
+                    .execute()));
 
             // Handle HTTP errors
             if (response.statusCode() != 200) {
@@ -109,6 +371,11 @@ public class AccessibilityController {
                     .contentType(MediaType.TEXT_HTML)
                     .body(doc.html());
 
+        } catch (OriginUnavailableException e) {
+            return originUnavailable(e, e.getMessage());
+        } catch (HttpStatusException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body("Origin server returned error: " + e.getStatusCode());
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
                     .body("Network error: " + e.getMessage());
@@ -118,32 +385,47 @@ public class AccessibilityController {
         }
     }
 
+    // ignoreHttpErrors hides 5xx answers from the breaker; rethrow them so they count as origin failures
+    private static Response failOnServerError(String url, Response response) throws HttpStatusException {
+        if (response.statusCode() >= 500) {
+            throw new HttpStatusException("Origin server error", response.statusCode(), url);
+        }
+        return response;
+    }
+
     @GetMapping("/proxy/**")
-    public ResponseEntity<byte[]> proxyResource(
+    public DeferredResult<ResponseEntity<byte[]>> proxyResource(
             @RequestParam String baseUrl,
             HttpServletRequest request) {
 
-        try {
-            // Extract resource path from request
-            String requestURI = request.getRequestURI();
-            String resourcePath = requestURI.substring(requestURI.indexOf("/proxy/") + 7);
-            String resourceUrl = baseUrl + resourcePath;
+        // Extract resource path from request (must happen on the servlet thread)
+        String requestURI = request.getRequestURI();
+        String resourcePath = requestURI.substring(requestURI.indexOf("/proxy/") + 7);
+        String resourceUrl = baseUrl + resourcePath;
 
-            if (!isValidUrl(resourceUrl)) {
-                return ResponseEntity.badRequest().body("Invalid resource URL".getBytes());
-            }
+        if (!isValidUrl(resourceUrl)) {
+            return completed(ResponseEntity.badRequest().body("Invalid resource URL".getBytes()));
+        }
 
+        return runWithDeadline(proxyDeadlineMs, () -> fetchProxiedResource(resourceUrl));
+    }
+
+    private ResponseEntity<byte[]> fetchProxiedResource(String resourceUrl) {
+        try {
             // Fetch resource
-            Response response = Jsoup.connect(resourceUrl)
+            Response response = originHealthTracker.execute(resourceUrl, 30000, timeout -> Jsoup.connect(resourceUrl)
+                    .timeout(timeout)
                     .ignoreContentType(true)
                     .method(Connection.Method.GET)
-                    .execute();
+                    .execute());
 
             // Return with proper content type
             return ResponseEntity.ok()
                     .contentType(MediaType.parseMediaType(response.contentType()))
                     .body(response.bodyAsBytes());
 
+        } catch (OriginUnavailableException e) {
+            return originUnavailable(e, null);
         } catch (IOException e) {
             return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
         } catch (Exception e) {
@@ -151,6 +433,61 @@ public class AccessibilityController {
         }
     }
 
+    @GetMapping("/origins")
+    public ResponseEntity<Map<String, Map<String, Object>>> originHealth() {
+        return ResponseEntity.ok(originHealthTracker.snapshot());
+    }
+
+    private <T> ResponseEntity<T> originUnavailable(OriginUnavailableException e, T body) {
+        long retryAfterSeconds = Math.max(1, (e.getRetryAfterMs() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(body);
+    }
+
+    // Runs the task on the analysis executor; the upstream fetch is cancelled if the
+    // deadline passes or the client disconnects before it completes. Fetches are also
+    // given no more time than the deadline leaves, since cancelling doesn't interrupt a
+    // blocked socket read.
+    private <T> DeferredResult<ResponseEntity<T>> runWithDeadline(long deadlineMs, Callable<ResponseEntity<T>> task) {
+        DeferredResult<ResponseEntity<T>> deferred = new DeferredResult<>(deadlineMs);
+        long deadlineAt = System.currentTimeMillis() + deadlineMs;
+
+        Future<?> future;
+        try {
+            future = analysisExecutor.submit(PriorityTaskExecutor.Priority.INTERACTIVE, () -> {
+                originHealthTracker.beginDeadline(deadlineAt);
+                try {
+                    deferred.setResult(task.call());
+                } catch (Exception e) {
+                    deferred.setErrorResult(e);
+                } finally {
+                    originHealthTracker.endDeadline();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // Queue is full: shed the request now rather than let it wait out the deadline
+            deferred.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(shedRetryAfterSeconds))
+                    .build());
+            return deferred;
+        }
+
+        deferred.onTimeout(() -> {
+            future.cancel(true);
+            deferred.setResult(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build());
+        });
+        deferred.onError(error -> future.cancel(true));
+
+        return deferred;
+    }
+
+    private <T> DeferredResult<ResponseEntity<T>> completed(ResponseEntity<T> response) {
+        DeferredResult<ResponseEntity<T>> deferred = new DeferredResult<>();
+        deferred.setResult(response);
+        return deferred;
+    }
+
     private void rewriteUrls(Document doc, String baseUrl) {
         // Rewrite all resource URLs to go through our proxy
         String proxyBase = "/api/accessibility/proxy/";
@@ -193,7 +530,7 @@ public class AccessibilityController {
     }
 
     private boolean isDomainAllowed(String url) {
-        for (String domain : ALLOWED_DOMAINS) {
+        for (String domain : allowedDomains) {
             if (url.contains(domain)) {
                 return true;
             }
@@ -0,0 +1,7 @@
+package com.accessibleweb.model;
+
+import java.time.Instant;
+
+// One stored entry, keyed by (url, timestamp); the result is an AnalysisResult or, for drift keys, a PaletteDrift
+public record AnalysisRecord<T>(String url, Instant timestamp, T result) {
+}
@@ -0,0 +1,49 @@
+package com.accessibleweb.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of analysing one page, as returned by the API and stored in history. Written by
+ * AnalysisResultSerializer with a streaming generator (JSON, CBOR or Smile); the field names match
+ * the record components so stored results read back into this type.
+ */
+@JsonSerialize(using = AnalysisResultSerializer.class)
+public record AnalysisResult(String analysisMode, ColorAnalysis colorAnalysis, Accessibility accessibility,
+                             ColorGroups rawData, Map<String, Double> timings) {
+
+    public record ColorAnalysis(PrimaryColors primaryColors, Contrast contrast, ColorSuggestion suggestion) {}
+
+    public record PrimaryColors(ColorInfo background, ColorInfo text) {}
+
+    public record ColorInfo(String value, String source) {}
+
+    public record Contrast(double ratio, String rating, Requirements meetsRequirements) {}
+
+    public record Requirements(@JsonProperty("AA") boolean aa, @JsonProperty("AAA") boolean aaa, boolean strict) {}
+
+    public record Accessibility(String summary, List<String> warnings, Checks checks) {
+        public Accessibility {
+            warnings = warnings == null ? List.of() : warnings;
+        }
+    }
+
+    public record Checks(boolean colorblindSafe, boolean lowLightVisible, String minimumContrast) {}
+
+    // "other" is left out of the output when empty
+    public record ColorGroups(List<String> backgrounds, List<String> textColors, List<String> buttons, List<String> other) {
+        public ColorGroups {
+            backgrounds = backgrounds == null ? List.of() : backgrounds;
+            textColors = textColors == null ? List.of() : textColors;
+            buttons = buttons == null ? List.of() : buttons;
+            other = other == null ? List.of() : other;
+        }
+    }
+
+    public AnalysisResult withTimings(Map<String, Double> timings) {
+        return new AnalysisResult(analysisMode, colorAnalysis, accessibility, rawData, timings);
+    }
+}
@@ -0,0 +1,113 @@
+package com.accessibleweb.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes an AnalysisResult field by field with the generator, skipping Jackson's reflective bean
+ * and map serialization. The generator decides the encoding, so the same code produces JSON, CBOR
+ * and Smile. Object and array sizes are passed up front so CBOR can use definite-length headers.
+ */
+public class AnalysisResultSerializer extends StdSerializer<AnalysisResult> {
+
+    public AnalysisResultSerializer() {
+        super(AnalysisResult.class);
+    }
+
+    @Override
+    public void serialize(AnalysisResult result, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(result, result.timings() == null ? 4 : 5);
+        gen.writeStringField("analysisMode", result.analysisMode());
+
+        AnalysisResult.ColorAnalysis colorAnalysis = result.colorAnalysis();
+        startObject(gen, "colorAnalysis", colorAnalysis, colorAnalysis.suggestion() == null ? 2 : 3);
+        startObject(gen, "primaryColors", colorAnalysis.primaryColors(), 2);
+        writeColorInfo(gen, "background", colorAnalysis.primaryColors().background());
+        writeColorInfo(gen, "text", colorAnalysis.primaryColors().text());
+        gen.writeEndObject();
+
+        AnalysisResult.Contrast contrast = colorAnalysis.contrast();
+        startObject(gen, "contrast", contrast, 3);
+        gen.writeNumberField("ratio", contrast.ratio());
+        gen.writeStringField("rating", contrast.rating());
+        startObject(gen, "meetsRequirements", contrast.meetsRequirements(), 3);
+        gen.writeBooleanField("AA", contrast.meetsRequirements().aa());
+        gen.writeBooleanField("AAA", contrast.meetsRequirements().aaa());
+        gen.writeBooleanField("strict", contrast.meetsRequirements().strict());
+        gen.writeEndObject();
+        gen.writeEndObject();
+
+        if (colorAnalysis.suggestion() != null) {
+            writeSuggestion(gen, colorAnalysis.suggestion());
+        }
+        gen.writeEndObject();
+
+        AnalysisResult.Accessibility accessibility = result.accessibility();
+        startObject(gen, "accessibility", accessibility, 3);
+        gen.writeStringField("summary", accessibility.summary());
+        writeStrings(gen, "warnings", accessibility.warnings());
+        startObject(gen, "checks", accessibility.checks(), 3);
+        gen.writeBooleanField("colorblindSafe", accessibility.checks().colorblindSafe());
+        gen.writeBooleanField("lowLightVisible", accessibility.checks().lowLightVisible());
+        gen.writeStringField("minimumContrast", accessibility.checks().minimumContrast());
+        gen.writeEndObject();
+        gen.writeEndObject();
+
+        AnalysisResult.ColorGroups rawData = result.rawData();
+        startObject(gen, "rawData", rawData, rawData.other().isEmpty() ? 3 : 4);
+        writeStrings(gen, "backgrounds", rawData.backgrounds());
+        writeStrings(gen, "textColors", rawData.textColors());
+        writeStrings(gen, "buttons", rawData.buttons());
+        if (!rawData.other().isEmpty()) {
+            writeStrings(gen, "other", rawData.other());
+        }
+        gen.writeEndObject();
+
+        if (result.timings() != null) {
+            startObject(gen, "timings", result.timings(), result.timings().size());
+            for (Map.Entry<String, Double> timing : result.timings().entrySet()) {
+                gen.writeNumberField(timing.getKey(), timing.getValue());
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void startObject(JsonGenerator gen, String name, Object value, int size) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeStartObject(value, size);
+    }
+
+    private static void writeColorInfo(JsonGenerator gen, String name, AnalysisResult.ColorInfo info) throws IOException {
+        startObject(gen, name, info, 2);
+        gen.writeStringField("value", info.value());
+        gen.writeStringField("source", info.source());
+        gen.writeEndObject();
+    }
+
+    private static void writeSuggestion(JsonGenerator gen, ColorSuggestion suggestion) throws IOException {
+        startObject(gen, "suggestion", suggestion, 7);
+        gen.writeStringField("original", suggestion.original());
+        gen.writeStringField("suggested", suggestion.suggested());
+        gen.writeStringField("background", suggestion.background());
+        gen.writeNumberField("originalRatio", suggestion.originalRatio());
+        gen.writeNumberField("ratio", suggestion.ratio());
+        gen.writeNumberField("deltaE", suggestion.deltaE());
+        gen.writeBooleanField("meetsTarget", suggestion.meetsTarget());
+        gen.writeEndObject();
+    }
+
+    private static void writeStrings(JsonGenerator gen, String name, List<String> values) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeStartArray(values, values.size());
+        for (String value : values) {
+            gen.writeString(value);
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,7 @@
+package com.accessibleweb.model;
+
+import java.util.List;
+
+// Body of a batch audit submission
+public record BatchRequest(List<String> urls, String mode) {
+}
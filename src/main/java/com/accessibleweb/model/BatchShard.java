@@ -0,0 +1,12 @@
+package com.accessibleweb.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A slice of a batch audit handed to one worker. Every shard of a batch carries the batch's
+ * timestamp, so results are stored under (url, batchTimestamp) and a retried shard rewrites
+ * the same history records instead of adding new ones.
+ */
+public record BatchShard(String batchId, int index, Instant batchTimestamp, String mode, List<String> urls) {
+}
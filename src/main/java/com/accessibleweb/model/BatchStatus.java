@@ -0,0 +1,10 @@
+package com.accessibleweb.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+// Progress and aggregated results of a batch audit; finishedAt is null while shards are still running
+public record BatchStatus(String batchId, String status, String mode, Instant timestamp, Instant finishedAt,
+                          int urls, int shards, int completedShards, int shardsWithFailures, int retries,
+                          Map<String, AnalysisResult> results, Map<String, String> failures) {
+}
@@ -0,0 +1,10 @@
+package com.accessibleweb.model;
+
+// A replacement for a foreground color that misses its contrast target; suggested equals original when it already passes
+public record ColorSuggestion(String original, String suggested, String background, double originalRatio,
+                              double ratio, double deltaE, boolean meetsTarget) {
+
+    public boolean changed() {
+        return !original.equals(suggested);
+    }
+}
@@ -0,0 +1,7 @@
+package com.accessibleweb.model;
+
+import java.time.Instant;
+
+// Published on the watch event stream when a watched page's palette or contrast changes
+public record DriftEvent(String url, Instant timestamp, PaletteDrift diff) {
+}
@@ -0,0 +1,10 @@
+package com.accessibleweb.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A page palette with every failing text color replaced by its nearest passing suggestion
+public record PaletteCorrection(String level, double targetRatio, Set<String> visions, String background,
+                                List<ColorSuggestion> changes, Map<String, String> correctedPalette) {
+}
@@ -0,0 +1,32 @@
+package com.accessibleweb.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * What changed between two analyses of a watched page. Empty parts are left out, and a drift
+ * with no parts at all is never stored or published.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record PaletteDrift(List<String> addedColors, List<String> removedColors,
+                           List<FailingPair> newFailingPairs, List<FailingPair> resolvedFailingPairs,
+                           RatingChange rating) {
+
+    public record FailingPair(String foreground, String background, double ratio) {}
+
+    public record RatingChange(String from, String to, double ratio) {}
+
+    // Empty parts are left out when stored, so drift read back from history has null lists
+    public PaletteDrift {
+        addedColors = addedColors == null ? List.of() : addedColors;
+        removedColors = removedColors == null ? List.of() : removedColors;
+        newFailingPairs = newFailingPairs == null ? List.of() : newFailingPairs;
+        resolvedFailingPairs = resolvedFailingPairs == null ? List.of() : resolvedFailingPairs;
+    }
+
+    public boolean hasChanges() {
+        return !addedColors.isEmpty() || !removedColors.isEmpty() || !newFailingPairs.isEmpty()
+                || !resolvedFailingPairs.isEmpty() || rating != null;
+    }
+}
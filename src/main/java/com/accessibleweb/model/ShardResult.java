@@ -0,0 +1,8 @@
+package com.accessibleweb.model;
+
+import java.util.Map;
+
+// What a worker reports back for a shard: analysis results per url, and an error message per failed url
+public record ShardResult(String batchId, int index, Map<String, AnalysisResult> results,
+                          Map<String, String> failures) {
+}
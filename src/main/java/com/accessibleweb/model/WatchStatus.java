@@ -0,0 +1,7 @@
+package com.accessibleweb.model;
+
+import java.time.Instant;
+
+public record WatchStatus(String url, String mode, Instant lastRunAt, Instant nextRunAt, boolean running,
+                          String lastError) {
+}
@@ -0,0 +1,29 @@
+package com.accessibleweb.repository;
+
+import com.accessibleweb.model.AnalysisRecord;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistent history of analysis results keyed by (url, timestamp).
+ * Writing a record with an existing key replaces the earlier one, so writes are idempotent.
+ * Results are stored as JSON and read back as the type the caller asks for.
+ */
+public interface AnalysisHistoryStore {
+
+    void append(AnalysisRecord<?> record);
+
+    default void appendAll(List<? extends AnalysisRecord<?>> records) {
+        records.forEach(this::append);
+    }
+
+    <T> Optional<AnalysisRecord<T>> latest(String url, Class<T> type);
+
+    // Records for the url with from <= timestamp <= to, oldest first
+    <T> List<AnalysisRecord<T>> range(String url, Instant from, Instant to, Class<T> type);
+
+    default void flush() {
+    }
+}
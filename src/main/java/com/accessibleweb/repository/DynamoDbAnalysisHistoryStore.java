@@ -0,0 +1,304 @@
+package com.accessibleweb.repository;
+
+import com.accessibleweb.model.AnalysisRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * DynamoDB history backend. Table layout: partition key "url" (S), sort key "ts" (N, epoch millis),
+ * attribute "result" (S, JSON). Appends are buffered and written with BatchWriteItem by a background
+ * flusher, never on the caller's thread; pending records are merged into reads so callers see their
+ * own writes. The buffer is bounded, and appends beyond it are dropped with a warning while
+ * DynamoDB is unreachable. The client is built (and the table optionally created) on first use
+ * rather than at startup.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "history.backend", havingValue = "dynamodb")
+public class DynamoDbAnalysisHistoryStore implements AnalysisHistoryStore {
+
+    // BatchWriteItem accepts at most 25 items per call
+    private static final int MAX_BATCH = 25;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+
+    private final Supplier<DynamoDbClient> clientFactory;
+    private final boolean createTable;
+    private final String tableName;
+    private final int maxPending;
+    private final ObjectMapper objectMapper;
+    private final List<AnalysisRecord<?>> pending = new ArrayList<>();
+    private final ScheduledExecutorService flusher;
+    private long dropped;
+
+    private volatile DynamoDbClient dynamoDb;
+
+    @Autowired
+    public DynamoDbAnalysisHistoryStore(
+            @Value("${history.dynamodb.table:analysis-history}") String tableName,
+            @Value("${history.dynamodb.region:us-east-1}") String region,
+            @Value("${history.dynamodb.endpoint:}") String endpoint,
+            @Value("${history.dynamodb.create-table:false}") boolean createTable,
+            @Value("${history.dynamodb.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${history.dynamodb.max-pending:10000}") int maxPending,
+            ObjectMapper objectMapper
+    ) {
+        this(() -> buildClient(region, endpoint), tableName, createTable, flushIntervalMs, maxPending, objectMapper);
+    }
+
+    // Accepts a client factory so the adapter can run against DynamoDB Local or another stand-in
+    DynamoDbAnalysisHistoryStore(Supplier<DynamoDbClient> clientFactory, String tableName, boolean createTable,
+                                 long flushIntervalMs, int maxPending, ObjectMapper objectMapper) {
+        this.clientFactory = clientFactory;
+        this.tableName = tableName;
+        this.createTable = createTable;
+        this.maxPending = maxPending;
+        this.objectMapper = objectMapper;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "history-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void append(AnalysisRecord<?> record) {
+        boolean batchReady;
+        synchronized (pending) {
+            if (pending.size() >= maxPending) {
+                // Only the first drop since the last successful flush is logged, so an outage doesn't flood the log
+                if (dropped++ == 0) {
+                    log.warn("History buffer for DynamoDB table {} is full ({} records); dropping new records until it drains",
+                            tableName, maxPending);
+                }
+                return;
+            }
+            pending.add(record);
+            batchReady = pending.size() == MAX_BATCH;
+        }
+        // A full batch is written early, but still on the flusher thread
+        if (batchReady && !flusher.isShutdown()) flusher.execute(this::flushQuietly);
+    }
+
+    @Override
+    public <T> Optional<AnalysisRecord<T>> latest(String url, Class<T> type) {
+        QueryResponse response = client().query(QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("#url = :url")
+                .expressionAttributeNames(Map.of("#url", "url"))
+                .expressionAttributeValues(Map.of(":url", AttributeValue.fromS(url)))
+                .scanIndexForward(false)
+                .limit(1)
+                .build());
+
+        Optional<AnalysisRecord<T>> stored = response.items().stream().findFirst().map(item -> fromItem(item, type));
+        Optional<AnalysisRecord<T>> buffered = pendingFor(url).stream()
+                .max(Comparator.comparing(AnalysisRecord::timestamp))
+                .map(record -> convert(record, type));
+
+        if (buffered.isEmpty()) return stored;
+        if (stored.isEmpty()) return buffered;
+        return buffered.get().timestamp().isBefore(stored.get().timestamp()) ? stored : buffered;
+    }
+
+    @Override
+    public <T> List<AnalysisRecord<T>> range(String url, Instant from, Instant to, Class<T> type) {
+        TreeMap<Instant, AnalysisRecord<T>> records = new TreeMap<>();
+
+        client().queryPaginator(QueryRequest.builder()
+                        .tableName(tableName)
+                        .keyConditionExpression("#url = :url AND ts BETWEEN :from AND :to")
+                        .expressionAttributeNames(Map.of("#url", "url"))
+                        .expressionAttributeValues(Map.of(
+                                ":url", AttributeValue.fromS(url),
+                                ":from", AttributeValue.fromN(Long.toString(from.toEpochMilli())),
+                                ":to", AttributeValue.fromN(Long.toString(to.toEpochMilli()))))
+                        .build())
+                .items()
+                .forEach(item -> {
+                    AnalysisRecord<T> record = fromItem(item, type);
+                    records.put(record.timestamp(), record);
+                });
+
+        for (AnalysisRecord<?> record : pendingFor(url)) {
+            if (!record.timestamp().isBefore(from) && !record.timestamp().isAfter(to)) {
+                records.put(record.timestamp(), convert(record, type));
+            }
+        }
+        return new ArrayList<>(records.values());
+    }
+
+    @Override
+    public synchronized void flush() {
+        List<AnalysisRecord<?>> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) return;
+            batch = new ArrayList<>(pending);
+        }
+
+        // Records with the same key collapse to the latest write, since a batch may not repeat a key
+        Map<String, WriteRequest> writes = new LinkedHashMap<>();
+        for (AnalysisRecord<?> record : batch) {
+            writes.put(record.url() + '\u0000' + record.timestamp().toEpochMilli(),
+                    WriteRequest.builder().putRequest(PutRequest.builder().item(toItem(record)).build()).build());
+        }
+
+        List<WriteRequest> requests = new ArrayList<>(writes.values());
+        for (int start = 0; start < requests.size(); start += MAX_BATCH) {
+            writeBatch(requests.subList(start, Math.min(start + MAX_BATCH, requests.size())));
+        }
+
+        // Only drop what was written; appends made during the flush stay pending
+        long droppedRecords;
+        synchronized (pending) {
+            pending.subList(0, batch.size()).clear();
+            droppedRecords = dropped;
+            dropped = 0;
+        }
+        if (droppedRecords > 0) {
+            log.warn("Dropped {} history records while the DynamoDB table {} was behind", droppedRecords, tableName);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        flushQuietly();
+        if (dynamoDb != null) dynamoDb.close();
+    }
+
+    private DynamoDbClient client() {
+        DynamoDbClient client = dynamoDb;
+        if (client == null) {
+            synchronized (this) {
+                client = dynamoDb;
+                if (client == null) {
+                    client = clientFactory.get();
+                    if (createTable) createTableIfMissing(client);
+                    dynamoDb = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private void writeBatch(List<WriteRequest> requests) {
+        Map<String, List<WriteRequest>> unprocessed = Map.of(tableName, requests);
+        for (int attempt = 0; !unprocessed.isEmpty(); attempt++) {
+            if (attempt > MAX_UNPROCESSED_RETRIES) {
+                throw new IllegalStateException("DynamoDB left " + unprocessed.get(tableName).size()
+                        + " history writes unprocessed");
+            }
+            if (attempt > 0) backoff(attempt);
+
+            BatchWriteItemResponse response = client().batchWriteItem(BatchWriteItemRequest.builder()
+                    .requestItems(unprocessed)
+                    .build());
+            unprocessed = response.hasUnprocessedItems() ? response.unprocessedItems() : Map.of();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush analysis history to DynamoDB table {}", tableName, e);
+        }
+    }
+
+    private List<AnalysisRecord<?>> pendingFor(String url) {
+        synchronized (pending) {
+            return pending.stream().filter(record -> record.url().equals(url)).toList();
+        }
+    }
+
+    private Map<String, AttributeValue> toItem(AnalysisRecord<?> record) {
+        try {
+            return Map.of(
+                    "url", AttributeValue.fromS(record.url()),
+                    "ts", AttributeValue.fromN(Long.toString(record.timestamp().toEpochMilli())),
+                    "result", AttributeValue.fromS(objectMapper.writeValueAsString(record.result())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> AnalysisRecord<T> fromItem(Map<String, AttributeValue> item, Class<T> type) {
+        try {
+            return new AnalysisRecord<>(
+                    item.get("url").s(),
+                    Instant.ofEpochMilli(Long.parseLong(item.get("ts").n())),
+                    objectMapper.readValue(item.get("result").s(), type));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Buffered records hold whatever the caller appended; reads return them as the requested type
+    private <T> AnalysisRecord<T> convert(AnalysisRecord<?> record, Class<T> type) {
+        T result = type.isInstance(record.result())
+                ? type.cast(record.result())
+                : objectMapper.convertValue(record.result(), type);
+        return new AnalysisRecord<>(record.url(), record.timestamp(), result);
+    }
+
+    private void createTableIfMissing(DynamoDbClient dynamoDb) {
+        try {
+            dynamoDb.describeTable(DescribeTableRequest.builder().tableName(tableName).build());
+        } catch (ResourceNotFoundException e) {
+            log.info("Creating DynamoDB table {}", tableName);
+            dynamoDb.createTable(CreateTableRequest.builder()
+                    .tableName(tableName)
+                    .keySchema(
+                            KeySchemaElement.builder().attributeName("url").keyType(KeyType.HASH).build(),
+                            KeySchemaElement.builder().attributeName("ts").keyType(KeyType.RANGE).build())
+                    .attributeDefinitions(
+                            AttributeDefinition.builder().attributeName("url").attributeType(ScalarAttributeType.S).build(),
+                            AttributeDefinition.builder().attributeName("ts").attributeType(ScalarAttributeType.N).build())
+                    .billingMode(BillingMode.PAY_PER_REQUEST)
+                    .build());
+            dynamoDb.waiter().waitUntilTableExists(DescribeTableRequest.builder().tableName(tableName).build());
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(Math.min(1000, 50L << attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying history writes", e);
+        }
+    }
+
+    private static DynamoDbClient buildClient(String region, String endpoint) {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder().region(Region.of(region));
+        if (!endpoint.isEmpty()) {
+            // Local stand-ins such as DynamoDB Local accept any credentials
+            builder.endpointOverride(URI.create(endpoint))
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,243 @@
+package com.accessibleweb.repository;
+
+import com.accessibleweb.model.AnalysisRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Single-node history backend: an append-only log split into memory-mapped segments, with an
+ * in-memory (url -> timestamp -> position) index rebuilt on startup. New segments are
+ * history.local.segment-bytes long; existing ones are reopened at their own file size, so the
+ * setting can change between runs. Once there are more than history.local.max-segments, the
+ * oldest segment is dropped from the index and deleted (0 keeps everything).
+ *
+ * Record layout: [int length][long timestamp][int urlLength][url][JSON result].
+ * The length is written last, so a zero length marks the end of the log.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "history.backend", havingValue = "local", matchIfMissing = true)
+public class LocalAnalysisHistoryStore implements AnalysisHistoryStore {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("segment-(\\d+)\\.log");
+
+    private record Segment(Path file, MappedByteBuffer buffer, int capacity) {}
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final ObjectMapper objectMapper;
+
+    // Keyed by the number in the file name, which positions refer to
+    private final ConcurrentNavigableMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final Map<String, ConcurrentNavigableMap<Long, Long>> index = new ConcurrentHashMap<>();
+    private int writePosition;
+
+    public LocalAnalysisHistoryStore(
+            @Value("${history.local.dir:data/history}") Path directory,
+            @Value("${history.local.segment-bytes:16777216}") int segmentBytes,
+            @Value("${history.local.max-segments:64}") int maxSegments,
+            ObjectMapper objectMapper
+    ) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.objectMapper = objectMapper;
+
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    @Override
+    public synchronized void append(AnalysisRecord<?> record) {
+        byte[] url = record.url().getBytes(StandardCharsets.UTF_8);
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(record.result());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int length = HEADER_BYTES + url.length + payload.length;
+        // Keep room for the zero length that terminates the segment
+        if (length + Integer.BYTES > segmentBytes) {
+            throw new IllegalArgumentException("Analysis result too large for a history segment: " + length + " bytes");
+        }
+        if (segments.isEmpty() || writePosition + length + Integer.BYTES > segments.lastEntry().getValue().capacity()) {
+            openSegment(segments.isEmpty() ? 0 : segments.lastKey() + 1, segmentBytes);
+            writePosition = 0;
+            dropOldSegments();
+        }
+
+        int segment = segments.lastKey();
+        MappedByteBuffer buffer = segments.get(segment).buffer();
+        long timestamp = record.timestamp().toEpochMilli();
+
+        buffer.putLong(writePosition + Integer.BYTES, timestamp);
+        buffer.putInt(writePosition + Integer.BYTES + Long.BYTES, url.length);
+        buffer.put(writePosition + HEADER_BYTES, url);
+        buffer.put(writePosition + HEADER_BYTES + url.length, payload);
+        buffer.putInt(writePosition, length);
+
+        index.computeIfAbsent(record.url(), u -> new ConcurrentSkipListMap<>())
+                .put(timestamp, position(segment, writePosition));
+        writePosition += length;
+    }
+
+    @Override
+    public <T> Optional<AnalysisRecord<T>> latest(String url, Class<T> type) {
+        ConcurrentNavigableMap<Long, Long> entries = index.get(url);
+        if (entries == null) return Optional.empty();
+
+        // Newest first; an entry can outlive its segment for a moment while old segments are dropped
+        for (long position : entries.descendingMap().values()) {
+            AnalysisRecord<T> record = read(position, type);
+            if (record != null) return Optional.of(record);
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public <T> List<AnalysisRecord<T>> range(String url, Instant from, Instant to, Class<T> type) {
+        ConcurrentNavigableMap<Long, Long> entries = index.get(url);
+        if (entries == null) return List.of();
+
+        List<AnalysisRecord<T>> records = new ArrayList<>();
+        for (long position : entries.subMap(from.toEpochMilli(), true, to.toEpochMilli(), true).values()) {
+            AnalysisRecord<T> record = read(position, type);
+            if (record != null) records.add(record);
+        }
+        return records;
+    }
+
+    @Override
+    public void flush() {
+        for (Segment segment : segments.values()) {
+            segment.buffer().force();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    // Null when the record's segment has been dropped
+    private <T> AnalysisRecord<T> read(long position, Class<T> type) {
+        Segment segment = segments.get((int) (position >>> 32));
+        if (segment == null) return null;
+        MappedByteBuffer buffer = segment.buffer();
+        int offset = (int) position;
+
+        int length = buffer.getInt(offset);
+        long timestamp = buffer.getLong(offset + Integer.BYTES);
+        byte[] url = new byte[buffer.getInt(offset + Integer.BYTES + Long.BYTES)];
+        byte[] payload = new byte[length - HEADER_BYTES - url.length];
+        buffer.get(offset + HEADER_BYTES, url);
+        buffer.get(offset + HEADER_BYTES + url.length, payload);
+
+        try {
+            return new AnalysisRecord<>(
+                    new String(url, StandardCharsets.UTF_8),
+                    Instant.ofEpochMilli(timestamp),
+                    objectMapper.readValue(payload, type));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Maps every existing segment at its own size and replays it into the index
+    private void recover() throws IOException {
+        SortedMap<Integer, Path> files = new TreeMap<>();
+        try (Stream<Path> listing = Files.list(directory)) {
+            listing.forEach(path -> {
+                Matcher matcher = SEGMENT_FILE.matcher(path.getFileName().toString());
+                if (matcher.matches()) files.put(Integer.parseInt(matcher.group(1)), path);
+            });
+        }
+
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+            int segment = file.getKey();
+            long size = Files.size(file.getValue());
+            if (size < Integer.BYTES || size > Integer.MAX_VALUE) {
+                log.warn("Skipping history segment {} with unusable size {}", file.getValue(), size);
+                continue;
+            }
+            int capacity = (int) size;
+            MappedByteBuffer buffer = openSegment(segment, capacity).buffer();
+            int offset = 0;
+            while (offset + Integer.BYTES <= capacity) {
+                int length = buffer.getInt(offset);
+                if (length < HEADER_BYTES || offset + length > capacity) break;
+
+                byte[] url = new byte[buffer.getInt(offset + Integer.BYTES + Long.BYTES)];
+                buffer.get(offset + HEADER_BYTES, url);
+                index.computeIfAbsent(new String(url, StandardCharsets.UTF_8), u -> new ConcurrentSkipListMap<>())
+                        .put(buffer.getLong(offset + Integer.BYTES), position(segment, offset));
+                offset += length;
+            }
+            writePosition = offset;
+        }
+        dropOldSegments();
+        log.info("Loaded analysis history for {} URLs from {} segments in {}", index.size(), segments.size(), directory);
+    }
+
+    private Segment openSegment(int segment, int capacity) {
+        Path file = directory.resolve(String.format("segment-%05d.log", segment));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Segment opened = new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), capacity);
+            segments.put(segment, opened);
+            return opened;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Removes the oldest segments past max-segments from the index and deletes their files. Java 17
+     * has no public unmap, so each mapping is released once its buffer is garbage collected; on
+     * Linux the file can be deleted while still mapped.
+     */
+    private void dropOldSegments() {
+        while (maxSegments > 0 && segments.size() > maxSegments) {
+            Map.Entry<Integer, Segment> oldest = segments.pollFirstEntry();
+            int segment = oldest.getKey();
+
+            index.values().forEach(entries -> entries.values().removeIf(position -> (int) (position >>> 32) == segment));
+            index.values().removeIf(Map::isEmpty);
+
+            try {
+                Files.deleteIfExists(oldest.getValue().file());
+            } catch (IOException e) {
+                log.warn("Failed to delete expired history segment {}", oldest.getValue().file(), e);
+            }
+        }
+    }
+
+    private static long position(int segment, int offset) {
+        return ((long) segment << 32) | offset;
+    }
+}
@@ -0,0 +1,276 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.ColorSuggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds the perceptually nearest replacement for a foreground color so that it meets a contrast
+ * target against a fixed background. The color is moved along its own hue in CIE LCh: lightness is
+ * binary-searched towards black and towards white (contrast only grows as lightness moves away from
+ * the background), chroma is reduced only as far as needed to stay inside sRGB, and the closer of the
+ * two results in CIELAB is returned. Targets can also be required to hold under simulated
+ * protanopia, deuteranopia and tritanopia.
+ */
+@Component
+public class AccessibleColorSolver {
+
+    public enum Vision { NORMAL, PROTANOPIA, DEUTERANOPIA, TRITANOPIA }
+
+    private static final int LIGHTNESS_STEPS = 16;
+    private static final int CHROMA_STEPS = 12;
+
+    // Machado, Oliveira & Fernandes (2009) dichromacy simulation, severity 1.0, applied in linear RGB
+    private static final double[][] PROTANOPIA = {
+            {0.152286, 1.052583, -0.204868},
+            {0.114503, 0.786281, 0.099216},
+            {-0.003882, -0.048116, 1.051998}
+    };
+    private static final double[][] DEUTERANOPIA = {
+            {0.367322, 0.860646, -0.227968},
+            {0.280085, 0.672501, 0.047413},
+            {-0.011820, 0.042940, 0.968881}
+    };
+    private static final double[][] TRITANOPIA = {
+            {1.255528, -0.076749, -0.178779},
+            {-0.078411, 0.930809, 0.147602},
+            {0.004733, 0.691367, 0.303900}
+    };
+
+    public Optional<ColorSuggestion> suggest(String foreground, String background, double targetRatio) {
+        return suggest(foreground, background, targetRatio, EnumSet.of(Vision.NORMAL));
+    }
+
+    // Empty when either color isn't a hex color the solver can work with
+    public Optional<ColorSuggestion> suggest(String foreground, String background, double targetRatio, Set<Vision> visions) {
+        int[] fg = parseHex(foreground);
+        int[] bg = parseHex(background);
+        if (fg == null || bg == null) return Optional.empty();
+
+        Set<Vision> checked = EnumSet.of(Vision.NORMAL);
+        checked.addAll(visions);
+        double originalContrast = contrast(fg, bg);
+        String original = toHex(fg);
+        String backgroundHex = toHex(bg);
+
+        if (meets(fg, bg, targetRatio, checked)) {
+            return Optional.of(new ColorSuggestion(original, original, backgroundHex, round(originalContrast),
+                    round(originalContrast), 0, true));
+        }
+
+        double[] lab = toLab(fg);
+        double chroma = Math.hypot(lab[1], lab[2]);
+        double hue = Math.atan2(lab[2], lab[1]);
+
+        int[] darker = search(lab[0], 0, chroma, hue, bg, targetRatio, checked);
+        int[] lighter = search(lab[0], 100, chroma, hue, bg, targetRatio, checked);
+
+        int[] best;
+        boolean meetsTarget = true;
+        if (darker != null && lighter != null) {
+            best = deltaE(lab, toLab(darker)) <= deltaE(lab, toLab(lighter)) ? darker : lighter;
+        } else if (darker != null || lighter != null) {
+            best = darker != null ? darker : lighter;
+        } else {
+            // Unreachable target (e.g. AAA on a mid-grey background): offer the strongest contrast possible
+            int[] black = {0, 0, 0};
+            int[] white = {255, 255, 255};
+            best = contrast(black, bg) >= contrast(white, bg) ? black : white;
+            meetsTarget = false;
+        }
+
+        return Optional.of(new ColorSuggestion(original, toHex(best), backgroundHex, round(originalContrast),
+                round(contrast(best, bg)), round(deltaE(lab, toLab(best))), meetsTarget));
+    }
+
+    public static Set<Vision> parseVisions(String vision) {
+        if (vision == null || vision.isBlank() || vision.equalsIgnoreCase("normal")) return EnumSet.of(Vision.NORMAL);
+        if (vision.equalsIgnoreCase("all")) return EnumSet.allOf(Vision.class);
+
+        Set<Vision> visions = EnumSet.of(Vision.NORMAL);
+        for (String name : vision.split(",")) {
+            visions.add(Vision.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return visions;
+    }
+
+    /**
+     * Binary search on L* between the original lightness (failing) and an extreme (black or white).
+     * Only the passing bound is ever returned, so the result meets the target even where rounding
+     * to 8-bit channels or a simulation makes the predicate slightly non-monotone.
+     */
+    private int[] search(double fromLightness, double toLightness, double chroma, double hue,
+                         int[] bg, double targetRatio, Set<Vision> visions) {
+        int[] extreme = candidate(toLightness, chroma, hue);
+        if (!meets(extreme, bg, targetRatio, visions)) return null;
+
+        double failing = fromLightness;
+        double passing = toLightness;
+        int[] best = extreme;
+        for (int step = 0; step < LIGHTNESS_STEPS; step++) {
+            double mid = (failing + passing) / 2;
+            int[] rgb = candidate(mid, chroma, hue);
+            if (meets(rgb, bg, targetRatio, visions)) {
+                passing = mid;
+                best = rgb;
+            } else {
+                failing = mid;
+            }
+        }
+        return best;
+    }
+
+    // The in-gamut color with this lightness and hue whose chroma is closest to the original's
+    private int[] candidate(double lightness, double chroma, double hue) {
+        double[] linear = labToLinear(lightness, chroma * Math.cos(hue), chroma * Math.sin(hue));
+        if (!inGamut(linear)) {
+            double low = 0;
+            double high = chroma;
+            linear = labToLinear(lightness, 0, 0);
+            for (int step = 0; step < CHROMA_STEPS; step++) {
+                double mid = (low + high) / 2;
+                double[] attempt = labToLinear(lightness, mid * Math.cos(hue), mid * Math.sin(hue));
+                if (inGamut(attempt)) {
+                    low = mid;
+                    linear = attempt;
+                } else {
+                    high = mid;
+                }
+            }
+        }
+        return new int[]{encode(linear[0]), encode(linear[1]), encode(linear[2])};
+    }
+
+    private boolean meets(int[] fg, int[] bg, double targetRatio, Set<Vision> visions) {
+        for (Vision vision : visions) {
+            if (simulatedContrast(fg, bg, vision) < targetRatio) return false;
+        }
+        return true;
+    }
+
+    static double simulatedContrast(int[] fg, int[] bg, Vision vision) {
+        return contrastOfLuminance(luminance(simulate(linear(fg), vision)), luminance(simulate(linear(bg), vision)));
+    }
+
+    // Same formula as ColorService.calculateWCAGContrast, so suggestions agree with the analysis rating
+    static double contrast(int[] fg, int[] bg) {
+        return contrastOfLuminance(luminance(linear(fg)), luminance(linear(bg)));
+    }
+
+    // WCAG relative luminance of an sRGB color
+    static double relativeLuminance(int r, int g, int b) {
+        return 0.2126 * decode(r) + 0.7152 * decode(g) + 0.0722 * decode(b);
+    }
+
+    private static double contrastOfLuminance(double l1, double l2) {
+        return (Math.max(l1, l2) + 0.05) / (Math.min(l1, l2) + 0.05);
+    }
+
+    private static double[] simulate(double[] rgb, Vision vision) {
+        double[][] matrix = switch (vision) {
+            case NORMAL -> null;
+            case PROTANOPIA -> PROTANOPIA;
+            case DEUTERANOPIA -> DEUTERANOPIA;
+            case TRITANOPIA -> TRITANOPIA;
+        };
+        if (matrix == null) return rgb;
+
+        double[] simulated = new double[3];
+        for (int i = 0; i < 3; i++) {
+            double v = matrix[i][0] * rgb[0] + matrix[i][1] * rgb[1] + matrix[i][2] * rgb[2];
+            simulated[i] = Math.min(1, Math.max(0, v));
+        }
+        return simulated;
+    }
+
+    private static double luminance(double[] linear) {
+        return 0.2126 * linear[0] + 0.7152 * linear[1] + 0.0722 * linear[2];
+    }
+
+    private static double[] linear(int[] rgb) {
+        return new double[]{decode(rgb[0]), decode(rgb[1]), decode(rgb[2])};
+    }
+
+    private static double decode(int channel) {
+        double c = channel / 255.0;
+        return (c <= 0.03928) ? c / 12.92 : Math.pow((c + 0.055) / 1.055, 2.4);
+    }
+
+    private static int encode(double linear) {
+        double c = Math.min(1, Math.max(0, linear));
+        double v = (c <= 0.0031308) ? 12.92 * c : 1.055 * Math.pow(c, 1 / 2.4) - 0.055;
+        return (int) Math.round(v * 255);
+    }
+
+    private static boolean inGamut(double[] linear) {
+        for (double c : linear) {
+            if (c < -1e-6 || c > 1 + 1e-6) return false;
+        }
+        return true;
+    }
+
+    // sRGB (D65) -> CIELAB
+    static double[] toLab(int[] rgb) {
+        double[] c = linear(rgb);
+        double x = (0.4124564 * c[0] + 0.3575761 * c[1] + 0.1804375 * c[2]) / 0.95047;
+        double y = 0.2126729 * c[0] + 0.7151522 * c[1] + 0.0721750 * c[2];
+        double z = (0.0193339 * c[0] + 0.1191920 * c[1] + 0.9503041 * c[2]) / 1.08883;
+
+        double fx = labF(x);
+        double fy = labF(y);
+        double fz = labF(z);
+        return new double[]{116 * fy - 16, 500 * (fx - fy), 200 * (fy - fz)};
+    }
+
+    private static double[] labToLinear(double l, double a, double b) {
+        double fy = (l + 16) / 116;
+        double x = 0.95047 * labFInverse(fy + a / 500);
+        double y = labFInverse(fy);
+        double z = 1.08883 * labFInverse(fy - b / 200);
+
+        return new double[]{
+                3.2404542 * x - 1.5371385 * y - 0.4985314 * z,
+                -0.9692660 * x + 1.8760108 * y + 0.0415560 * z,
+                0.0556434 * x - 0.2040259 * y + 1.0572252 * z
+        };
+    }
+
+    private static double labF(double t) {
+        return t > 216.0 / 24389 ? Math.cbrt(t) : t * 24389 / 3132 + 4.0 / 29;
+    }
+
+    private static double labFInverse(double t) {
+        return t > 6.0 / 29 ? t * t * t : 3 * (6.0 / 29) * (6.0 / 29) * (t - 4.0 / 29);
+    }
+
+    private static double deltaE(double[] lab1, double[] lab2) {
+        return Math.sqrt(Math.pow(lab1[0] - lab2[0], 2) + Math.pow(lab1[1] - lab2[1], 2) + Math.pow(lab1[2] - lab2[2], 2));
+    }
+
+    static int[] parseHex(String color) {
+        if (color == null) return null;
+        String hex = color.trim().toLowerCase(Locale.ROOT);
+        if (hex.startsWith("#")) hex = hex.substring(1);
+        if (hex.length() == 3) {
+            hex = "" + hex.charAt(0) + hex.charAt(0) + hex.charAt(1) + hex.charAt(1) + hex.charAt(2) + hex.charAt(2);
+        }
+        if (!hex.matches("[0-9a-f]{6}")) return null;
+        return new int[]{
+                Integer.parseInt(hex.substring(0, 2), 16),
+                Integer.parseInt(hex.substring(2, 4), 16),
+                Integer.parseInt(hex.substring(4, 6), 16)
+        };
+    }
+
+    private static String toHex(int[] rgb) {
+        return String.format("#%02x%02x%02x", rgb[0], rgb[1], rgb[2]);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
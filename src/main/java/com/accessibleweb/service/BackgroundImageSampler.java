@@ -0,0 +1,392 @@
+package com.accessibleweb.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches background images and reduces each one to the colors that matter for contrast: its
+ * dominant and average color plus its lightest and darkest regions (the worst case for dark and
+ * for light text respectively). Images are decoded with source subsampling so only a thumbnail's
+ * worth of pixels is materialised, on a small bounded pool shared by all requests; palettes are
+ * cached by image url. Image urls come from the page, so only hosts on the analysis allow-list
+ * are fetched, never on private or link-local addresses and without following redirects.
+ */
+@Slf4j
+@Service
+public class BackgroundImageSampler {
+
+    // Colors are bucketed to 4 bits per channel when looking for the dominant one
+    private static final int BUCKET_SHIFT = 4;
+    private static final int MIN_OPAQUE_ALPHA = 128;
+
+    public record Palette(String dominant, String average, String lightest, String darkest) {
+
+        // Null when every pixel (or stop) is mostly transparent
+        static Palette of(int[] argb) {
+            int[] bucketCounts = new int[1 << (3 * (8 - BUCKET_SHIFT))];
+            long[] sums = new long[3];
+            int opaque = 0;
+            int lightest = 0;
+            int darkest = 0;
+            double maxLuminance = -1;
+            double minLuminance = 2;
+
+            for (int pixel : argb) {
+                if ((pixel >>> 24) < MIN_OPAQUE_ALPHA) continue;
+                int r = (pixel >> 16) & 0xff;
+                int g = (pixel >> 8) & 0xff;
+                int b = pixel & 0xff;
+                sums[0] += r;
+                sums[1] += g;
+                sums[2] += b;
+                opaque++;
+                bucketCounts[bucket(r, g, b)]++;
+
+                double luminance = AccessibleColorSolver.relativeLuminance(r, g, b);
+                if (luminance > maxLuminance) {
+                    maxLuminance = luminance;
+                    lightest = pixel;
+                }
+                if (luminance < minLuminance) {
+                    minLuminance = luminance;
+                    darkest = pixel;
+                }
+            }
+            if (opaque == 0) return null;
+
+            int dominantBucket = 0;
+            for (int i = 1; i < bucketCounts.length; i++) {
+                if (bucketCounts[i] > bucketCounts[dominantBucket]) dominantBucket = i;
+            }
+            // Report the mean of the dominant bucket's pixels rather than the bucket's corner
+            long[] bucketSums = new long[3];
+            for (int pixel : argb) {
+                if ((pixel >>> 24) < MIN_OPAQUE_ALPHA) continue;
+                int r = (pixel >> 16) & 0xff;
+                int g = (pixel >> 8) & 0xff;
+                int b = pixel & 0xff;
+                if (bucket(r, g, b) != dominantBucket) continue;
+                bucketSums[0] += r;
+                bucketSums[1] += g;
+                bucketSums[2] += b;
+            }
+
+            int count = bucketCounts[dominantBucket];
+            return new Palette(
+                    hex(bucketSums[0] / count, bucketSums[1] / count, bucketSums[2] / count),
+                    hex(sums[0] / opaque, sums[1] / opaque, sums[2] / opaque),
+                    CssBackgrounds.toHex(lightest),
+                    CssBackgrounds.toHex(darkest));
+        }
+
+        private static int bucket(int r, int g, int b) {
+            int bits = 8 - BUCKET_SHIFT;
+            return ((r >> BUCKET_SHIFT) << (2 * bits)) | ((g >> BUCKET_SHIFT) << bits) | (b >> BUCKET_SHIFT);
+        }
+
+        private static String hex(long r, long g, long b) {
+            return String.format("#%02x%02x%02x", r, g, b);
+        }
+    }
+
+    private final OriginHealthTracker originHealthTracker;
+    private final PipelineMetrics pipelineMetrics;
+    private final IncrementalAuditCache auditCache;
+    private final List<String> allowedDomains;
+    private final int maxImagesPerCall;
+    private final int thumbnailSize;
+    private final int maxImageBytes;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor decodePool;
+
+    @Autowired
+    public BackgroundImageSampler(
+            OriginHealthTracker originHealthTracker,
+            PipelineMetrics pipelineMetrics,
+            IncrementalAuditCache auditCache,
+            @Value("${background-images.allowed-domains:w3schools.com,example.com}") String[] allowedDomains,
+            @Value("${background-images.decode-threads:4}") int decodeThreads,
+            @Value("${background-images.queue-capacity:64}") int queueCapacity,
+            @Value("${background-images.max-per-page:8}") int maxImagesPerCall,
+            @Value("${background-images.thumbnail-size:64}") int thumbnailSize,
+            @Value("${background-images.max-bytes:5242880}") int maxImageBytes,
+            @Value("${background-images.timeout-ms:5000}") long timeoutMs
+    ) {
+        this.originHealthTracker = originHealthTracker;
+        this.pipelineMetrics = pipelineMetrics;
+        this.auditCache = auditCache;
+        this.allowedDomains = registrableDomains(allowedDomains);
+        this.maxImagesPerCall = maxImagesPerCall;
+        this.thumbnailSize = thumbnailSize;
+        this.maxImageBytes = maxImageBytes;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue makes the requesting thread decode its own image, which bounds memory and
+        // pushes back on callers instead of failing
+        this.decodePool = new ThreadPoolExecutor(decodeThreads, decodeThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-decode-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.decodePool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Samples the images in parallel and returns the palettes that could be computed, keyed by url
+     * in the given order. Only the first background-images.max-per-page distinct urls on hosts in
+     * background-images.allowed-domains are sampled; images that fail to load or decode, or don't finish within the timeout,
+     * are left out. The timeout is cut short by the calling thread's request deadline, if any.
+     */
+    public Map<String, Palette> sampleAll(Collection<String> imageUrls) {
+        Map<String, Palette> palettes = new LinkedHashMap<>();
+        Map<String, Future<Palette>> pending = new LinkedHashMap<>();
+
+        long start = System.nanoTime();
+        long budgetMs = Math.min(timeoutMs, originHealthTracker.remainingMs());
+        if (budgetMs <= 0) return palettes;
+        long deadlineAt = System.currentTimeMillis() + budgetMs;
+
+        List<String> allowedUrls = new LinkedHashSet<>(imageUrls).stream()
+                .filter(this::isAllowedHost)
+                .limit(maxImagesPerCall)
+                .toList();
+        for (String url : allowedUrls) {
+            Palette cached = auditCache.image(url);
+            if (cached != null) {
+                pipelineMetrics.cacheHit("image");
+                palettes.put(url, cached);
+            } else {
+                pipelineMetrics.cacheMiss("image");
+                // Decode threads fetch too, so they get the same deadline as the waiting caller
+                pending.put(url, decodePool.submit(() -> originHealthTracker.callWithDeadline(deadlineAt, () -> sample(url))));
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        for (Map.Entry<String, Future<Palette>> entry : pending.entrySet()) {
+            try {
+                Palette palette = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (palette != null) palettes.put(entry.getKey(), palette);
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                log.debug("Timed out sampling background image {}", entry.getKey());
+            } catch (ExecutionException e) {
+                log.debug("Failed to sample background image {}: {}", entry.getKey(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                // The request was cancelled; stop waiting and abandon the remaining decodes
+                Thread.currentThread().interrupt();
+                pending.values().forEach(future -> future.cancel(true));
+                break;
+            }
+        }
+        if (!pending.isEmpty()) pipelineMetrics.record("sample-images", start);
+
+        // Keep the caller's order even when cached palettes were found first
+        Map<String, Palette> ordered = new LinkedHashMap<>();
+        for (String url : imageUrls) {
+            Palette palette = palettes.get(url);
+            if (palette != null) ordered.put(url, palette);
+        }
+        return ordered;
+    }
+
+    Palette sample(String url) throws IOException {
+        byte[] bytes = fetchImage(url);
+        Palette palette = decode(bytes);
+        if (palette != null) auditCache.putImage(url, palette);
+        return palette;
+    }
+
+    // Matched on the host at a dot boundary, so a path, query or look-alike suffix can't satisfy it
+    boolean isAllowedHost(String url) {
+        String host = OriginHealthTracker.hostOf(url);
+        for (String allowed : allowedDomains) {
+            if (host.equals(allowed) || host.endsWith("." + allowed)) return true;
+        }
+        return false;
+    }
+
+    // Image urls come from page content, so a bare TLD entry ("org") would let any page pick the host
+    private static List<String> registrableDomains(String[] domains) {
+        List<String> allowed = new ArrayList<>();
+        for (String domain : domains) {
+            String normalized = domain.trim().toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty()) continue;
+            if (!normalized.contains(".")) {
+                log.warn("Ignoring background image domain '{}': list registrable domains, not top-level ones", normalized);
+                continue;
+            }
+            allowed.add(normalized);
+        }
+        return List.copyOf(allowed);
+    }
+
+    // Outbound fetches are isolated here so tests can substitute image content
+    byte[] fetchImage(String url) throws IOException {
+        URI uri;
+        try {
+            uri = new URI(url);
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid image url " + url, e);
+        }
+        boolean https = "https".equalsIgnoreCase(uri.getScheme());
+        if (uri.getHost() == null || !(https || "http".equalsIgnoreCase(uri.getScheme()))) {
+            throw new IOException("Unsupported image url " + url);
+        }
+
+        InetAddress address = publicAddress(uri.getHost());
+        byte[] bytes = pipelineMetrics.timeFetch("fetch-image", url, () ->
+                originHealthTracker.execute(url, (int) timeoutMs, timeout -> get(uri, https, address, timeout)));
+        pipelineMetrics.bytesFetched("image", url, bytes.length);
+        return bytes;
+    }
+
+    // The host is resolved once and every address checked; the fetch then connects to the checked
+    // address, so a second lookup can't be rebound to an internal one
+    private InetAddress publicAddress(String host) throws IOException {
+        InetAddress[] addresses = resolve(host);
+        for (InetAddress address : addresses) {
+            if (!isPublicAddress(address)) {
+                throw new IOException("Refusing to fetch image from non-public address " + address.getHostAddress());
+            }
+        }
+        return addresses[0];
+    }
+
+    InetAddress[] resolve(String host) throws UnknownHostException {
+        return InetAddress.getAllByName(host);
+    }
+
+    // Loopback, private, link-local (cloud metadata) and similar addresses are never fetched
+    boolean isPublicAddress(InetAddress address) {
+        boolean uniqueLocal = address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc;
+        return !(address.isLoopbackAddress() || address.isLinkLocalAddress() || address.isSiteLocalAddress()
+                || address.isAnyLocalAddress() || address.isMulticastAddress() || uniqueLocal);
+    }
+
+    /*
+     * Plain HTTP/1.0 GET against the pinned address. Redirects aren't followed (they could point
+     * anywhere), nothing is compressed, and the body ends at Content-Length or when the server
+     * closes the connection. For https the certificate is checked against the url's host name.
+     */
+    private byte[] get(URI uri, boolean https, InetAddress address, int timeoutMs) throws IOException {
+        int port = uri.getPort() != -1 ? uri.getPort() : (https ? 443 : 80);
+        String path = (uri.getRawPath() == null || uri.getRawPath().isEmpty()) ? "/" : uri.getRawPath();
+        if (uri.getRawQuery() != null) path += "?" + uri.getRawQuery();
+
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(address, port), timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            if (https) {
+                SSLSocket tls = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault())
+                        .createSocket(socket, uri.getHost(), port, true);
+                SSLParameters parameters = tls.getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                tls.setSSLParameters(parameters);
+                socket = tls;
+                tls.startHandshake();
+            }
+
+            String hostHeader = uri.getHost() + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + path + " HTTP/1.0\r\n"
+                    + "Host: " + hostHeader + "\r\n"
+                    + "User-Agent: Chrome/120.0.0.0\r\n"
+                    + "Accept: image/*\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            String[] statusLine = readLine(in).split(" ", 3);
+            long contentLength = -1;
+            for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+                int colon = header.indexOf(':');
+                if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                    contentLength = parseNumber(header.substring(colon + 1).trim());
+                }
+            }
+
+            int status = statusLine.length < 2 ? -1 : (int) parseNumber(statusLine[1]);
+            if (status != 200) throw new HttpStatusException("Image fetch failed", status, uri.toString());
+            if (contentLength > maxImageBytes) throw new IOException("Image is larger than " + maxImageBytes + " bytes");
+
+            byte[] body = in.readNBytes(contentLength >= 0 ? (int) contentLength : maxImageBytes + 1);
+            if (body.length > maxImageBytes) throw new IOException("Image is larger than " + maxImageBytes + " bytes");
+            return body;
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b == -1) throw new EOFException("Connection closed before the response headers ended");
+            if (line.size() >= 8192) throw new IOException("Response header line too long");
+            if (b != '\r') line.write(b);
+        }
+        return line.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    private static long parseNumber(String value) throws IOException {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed HTTP response: " + value);
+        }
+    }
+
+    // Null for formats ImageIO has no reader for (e.g. SVG, WebP without a plugin)
+    Palette decode(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Read every n-th pixel in each direction so the decoded image is about thumbnail-sized
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / thumbnailSize);
+                param.setSourceSubsampling(step, step, 0, 0);
+
+                BufferedImage image = reader.read(0, param);
+                return Palette.of(image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth()));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        decodePool.shutdownNow();
+    }
+}
@@ -0,0 +1,172 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.BatchShard;
+import com.accessibleweb.model.BatchStatus;
+import com.accessibleweb.model.ShardResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits a batch audit into fixed-size shards, dispatches them through the configured
+ * ShardInvoker and aggregates the results. Shards that fail, and urls that fail within a shard,
+ * are re-dispatched with jittered backoff up to the attempt limit. Workers write results under
+ * the batch timestamp, so a retry never duplicates history.
+ */
+@Slf4j
+@Service
+public class BatchAnalysisCoordinator {
+
+    private final ShardInvoker shardInvoker;
+    private final int shardSize;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
+    private final Map<String, BatchJob> batches;
+
+    @Autowired
+    public BatchAnalysisCoordinator(
+            ShardInvoker shardInvoker,
+            @Value("${batch.shard-size:10}") int shardSize,
+            @Value("${batch.max-shard-attempts:3}") int maxAttempts,
+            @Value("${batch.retry-base-delay-ms:500}") long retryBaseDelayMs,
+            @Value("${batch.max-retained:100}") int maxRetained
+    ) {
+        this.shardInvoker = shardInvoker;
+        this.shardSize = Math.max(1, shardSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        this.batches = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BatchJob> eldest) {
+                return size() > maxRetained;
+            }
+        });
+    }
+
+    // Starts the batch and returns its id; progress and results are read with status()
+    public String submit(Collection<String> urls, String mode) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(urls));
+        String analysisMode = (mode == null) ? "default" : mode.toLowerCase();
+        int shardCount = (distinct.size() + shardSize - 1) / shardSize;
+
+        BatchJob job = new BatchJob(UUID.randomUUID().toString(), Instant.now().truncatedTo(ChronoUnit.MILLIS),
+                analysisMode, distinct.size(), shardCount);
+        batches.put(job.batchId, job);
+        log.info("Batch {}: {} urls in {} shards", job.batchId, distinct.size(), shardCount);
+
+        for (int index = 0; index < shardCount; index++) {
+            List<String> shardUrls = distinct.subList(index * shardSize, Math.min((index + 1) * shardSize, distinct.size()));
+            dispatch(job, new BatchShard(job.batchId, index, job.timestamp, analysisMode, List.copyOf(shardUrls)), 1);
+        }
+        if (shardCount == 0) job.finish();
+        return job.batchId;
+    }
+
+    public Optional<BatchStatus> status(String batchId) {
+        BatchJob job = batches.get(batchId);
+        return job == null ? Optional.empty() : Optional.of(job.describe());
+    }
+
+    private void dispatch(BatchJob job, BatchShard shard, int attempt) {
+        CompletableFuture<ShardResult> invocation;
+        try {
+            invocation = shardInvoker.invoke(shard);
+        } catch (RuntimeException e) {
+            invocation = CompletableFuture.failedFuture(e);
+        }
+
+        invocation.whenComplete((result, error) -> {
+            if (error != null) {
+                log.warn("Batch {} shard {} attempt {} failed: {}", shard.batchId(), shard.index(), attempt, error.getMessage());
+                Map<String, String> failures = new LinkedHashMap<>();
+                shard.urls().forEach(url -> failures.put(url, "Shard failed: " + error.getMessage()));
+                retryOrFail(job, shard, failures, attempt);
+                return;
+            }
+
+            job.results.putAll(result.results());
+            if (result.failures().isEmpty()) {
+                job.shardDone(false);
+            } else {
+                retryOrFail(job, shard, result.failures(), attempt);
+            }
+        });
+    }
+
+    // Only the urls that failed are re-dispatched; the rest of the shard is already stored
+    private void retryOrFail(BatchJob job, BatchShard shard, Map<String, String> failures, int attempt) {
+        if (attempt >= maxAttempts) {
+            job.failures.putAll(failures);
+            job.shardDone(true);
+            return;
+        }
+
+        job.retries.incrementAndGet();
+        BatchShard retry = new BatchShard(shard.batchId(), shard.index(), shard.batchTimestamp(), shard.mode(),
+                List.copyOf(failures.keySet()));
+        long delay = ThreadLocalRandom.current().nextLong((retryBaseDelayMs << (attempt - 1)) + 1);
+        CompletableFuture.runAsync(() -> dispatch(job, retry, attempt + 1),
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+
+    private static final class BatchJob {
+        private final String batchId;
+        private final Instant timestamp;
+        private final String mode;
+        private final int urlCount;
+        private final int shardCount;
+
+        private final Map<String, AnalysisResult> results = new ConcurrentHashMap<>();
+        private final Map<String, String> failures = new ConcurrentHashMap<>();
+        private final AtomicInteger completedShards = new AtomicInteger();
+        private final AtomicInteger failedShards = new AtomicInteger();
+        private final AtomicInteger retries = new AtomicInteger();
+        private volatile Instant finishedAt;
+
+        BatchJob(String batchId, Instant timestamp, String mode, int urlCount, int shardCount) {
+            this.batchId = batchId;
+            this.timestamp = timestamp;
+            this.mode = mode;
+            this.urlCount = urlCount;
+            this.shardCount = shardCount;
+        }
+
+        void shardDone(boolean failed) {
+            if (failed) failedShards.incrementAndGet();
+            if (completedShards.incrementAndGet() == shardCount) finish();
+        }
+
+        void finish() {
+            finishedAt = Instant.now();
+            log.info("Batch {} finished: {} analysed, {} failed, {} retries",
+                    batchId, results.size(), failures.size(), retries.get());
+        }
+
+        BatchStatus describe() {
+            return new BatchStatus(
+                    batchId,
+                    finishedAt == null ? "RUNNING" : (failures.isEmpty() ? "COMPLETED" : "COMPLETED_WITH_FAILURES"),
+                    mode,
+                    timestamp,
+                    finishedAt,
+                    urlCount,
+                    shardCount,
+                    completedShards.get(),
+                    failedShards.get(),
+                    retries.get(),
+                    new TreeMap<>(results),
+                    new TreeMap<>(failures));
+        }
+    }
+}
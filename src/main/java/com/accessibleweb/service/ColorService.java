@@ -1,28 +1,52 @@
 package com.accessibleweb.service;
 
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.ColorSuggestion;
+import com.accessibleweb.model.PaletteCorrection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ColorService {
 
     private final WebScraperService webScraperService;
+    private final PipelineMetrics pipelineMetrics;
+    private final IncrementalAuditCache auditCache;
+    private final AccessibleColorSolver colorSolver;
 
     @Autowired
-    public ColorService(WebScraperService webScraperService) {
+    public ColorService(WebScraperService webScraperService, PipelineMetrics pipelineMetrics,
+                        IncrementalAuditCache auditCache, AccessibleColorSolver colorSolver) {
         this.webScraperService = webScraperService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.auditCache = auditCache;
+        this.colorSolver = colorSolver;
     }
 
     public Map<String, String> extractColorsFromWebsite(String url) {
         return webScraperService.extractColors(url);
     }
 
-    public Map<String, Object> analyzeAccessibility(String url, String mode) {
+    public AnalysisResult analyzeAccessibility(String url, String mode) {
+        return analyzeAccessibility(url, mode, false);
+    }
+
+    // Incremental analyses reuse the previous result when the extracted palette is unchanged
+    public AnalysisResult analyzeAccessibility(String url, String mode, boolean incremental) {
         String analysisMode = (mode == null) ? "default" : mode.toLowerCase();
         boolean isStrictMode = "strict".equals(analysisMode);
-        Map<String, String> colors = webScraperService.extractColors(url);
+        Map<String, String> colors = pipelineMetrics.time("scrape", () -> webScraperService.extractColors(url, incremental));
+
+        if (incremental) {
+            IncrementalAuditCache.AnalysisEntry previous = auditCache.analysis(url, analysisMode);
+            if (previous != null && previous.colors().equals(colors)) {
+                pipelineMetrics.cacheHit("analysis");
+                return previous.result();
+            }
+            pipelineMetrics.cacheMiss("analysis");
+        }
+        long contrastStart = System.nanoTime();
 
         // Get the most relevant colors
         String bgColor = colors.getOrDefault("background-color",
@@ -35,44 +59,86 @@ public class ColorService {
         String rating = getWCAGRating(contrastRatio, isStrictMode);
         boolean colorblindSafe = isColorblindSafe(bgColor, textColor, isStrictMode);
         List<String> warnings = detectAccessibilityIssues(bgColor, textColor, contrastRatio);
+        checkImageBackgrounds(colors, textColor, isStrictMode ? 5.0 : 4.5).ifPresent(warnings::add);
         boolean lowLightVisible = !isLowLight(bgColor, textColor);
 
-        Map<String, Object> result = new LinkedHashMap<>();
-        result.put("analysisMode", analysisMode);
-
         // Color Analysis
-        Map<String, Object> colorAnalysis = new LinkedHashMap<>();
-        colorAnalysis.put("primaryColors", Map.of(
-                "background", createColorInfo(bgColor, colors, "background-color"),
-                "text", createColorInfo(textColor, colors, "color", "text-0")
-        ));
-        colorAnalysis.put("contrast", createContrastInfo(contrastRatio, rating, isStrictMode));
-        result.put("colorAnalysis", colorAnalysis);
+        ColorSuggestion suggestion = "Fail".equals(rating)
+                ? colorSolver.suggest(textColor, bgColor, isStrictMode ? 5.0 : 4.5).orElse(null)
+                : null;
+        AnalysisResult.ColorAnalysis colorAnalysis = new AnalysisResult.ColorAnalysis(
+                new AnalysisResult.PrimaryColors(
+                        createColorInfo(bgColor, colors, "background-color"),
+                        createColorInfo(textColor, colors, "color", "text-0")),
+                createContrastInfo(contrastRatio, rating),
+                suggestion);
 
         // Accessibility Assessment
-        result.put("accessibility", Map.of(
-                "summary", getSummary(rating),
-                "warnings", warnings,
-                "checks", Map.of(
-                        "colorblindSafe", colorblindSafe,
-                        "lowLightVisible", lowLightVisible,
-                        "minimumContrast", getContrastLevel(contrastRatio)
-                )
-        ));
+        AnalysisResult.Accessibility accessibility = new AnalysisResult.Accessibility(
+                getSummary(rating),
+                warnings,
+                new AnalysisResult.Checks(colorblindSafe, lowLightVisible, getContrastLevel(contrastRatio)));
 
         // Raw Data (organized)
-        result.put("rawData", groupColorsByType(colors));
+        AnalysisResult result = new AnalysisResult(analysisMode, colorAnalysis, accessibility,
+                groupColorsByType(colors), null);
+        pipelineMetrics.record("contrast", contrastStart);
+
+        if (incremental) {
+            auditCache.putAnalysis(url, analysisMode, colors, result);
+        }
 
         return result;
     }
 
-    public Map<String, Object> analyzeAccessibility(String url) {
+    public AnalysisResult analyzeAccessibility(String url) {
         return analyzeAccessibility(url, "default");
     }
 
+    /**
+     * Checks every text color on the page against the primary background and replaces the ones
+     * that miss the level ("AA", "strict" or "AAA") with the nearest passing color of the same hue.
+     */
+    public PaletteCorrection suggestAccessiblePalette(String url, String level, Set<AccessibleColorSolver.Vision> visions) {
+        double targetRatio = targetRatio(level);
+        Map<String, String> colors = pipelineMetrics.time("scrape", () -> webScraperService.extractColors(url));
+        String bgColor = colors.getOrDefault("background-color",
+                findDominantColor(colors, "background"));
+
+        Map<String, String> correctedPalette = new LinkedHashMap<>(colors);
+        correctedPalette.keySet().removeIf(WebScraperService::isImageExtremeKey);
+        Map<String, ColorSuggestion> solved = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : colors.entrySet()) {
+            if (!isTextColorKey(entry.getKey())) continue;
+
+            ColorSuggestion suggestion = solved.computeIfAbsent(entry.getValue(),
+                    color -> colorSolver.suggest(color, bgColor, targetRatio, visions).orElse(null));
+            if (suggestion != null) {
+                correctedPalette.put(entry.getKey(), suggestion.suggested());
+            }
+        }
+
+        List<ColorSuggestion> changes = new ArrayList<>();
+        for (ColorSuggestion suggestion : solved.values()) {
+            if (suggestion != null && suggestion.changed()) {
+                changes.add(suggestion);
+            }
+        }
+
+        Set<String> visionNames = new LinkedHashSet<>();
+        visions.forEach(vision -> visionNames.add(vision.name()));
+        return new PaletteCorrection(level == null ? "AA" : level, targetRatio, visionNames, bgColor,
+                changes, correctedPalette);
+    }
+
+    public Optional<ColorSuggestion> suggestAccessibleColor(String foreground, String background, String level,
+                                                            Set<AccessibleColorSolver.Vision> visions) {
+        return colorSolver.suggest(foreground, background, targetRatio(level), visions);
+    }
+
     // ========== HELPER METHODS ==========
 
-    private Map<String, Object> createColorInfo(String color, Map<String, String> colors, String... keys) {
+    private AnalysisResult.ColorInfo createColorInfo(String color, Map<String, String> colors, String... keys) {
         String source = "derived";
         for (String key : keys) {
             if (colors.containsKey(key)) {
@@ -80,22 +146,48 @@ public class ColorService {
                 break;
             }
         }
-        return Map.of(
-                "value", color,
-                "source", source
-        );
+        return new AnalysisResult.ColorInfo(color, source);
     }
 
-    private Map<String, Object> createContrastInfo(double ratio, String rating, boolean isStrict) {
-        return Map.of(
-                "ratio", Math.round(ratio * 100) / 100.0,
-                "rating", rating,
-                "meetsRequirements", Map.of(
-                        "AA", ratio >= 4.5,
-                        "AAA", ratio >= 7.0,
-                        "strict", ratio >= 5.0
-                )
-        );
+    private AnalysisResult.Contrast createContrastInfo(double ratio, String rating) {
+        return new AnalysisResult.Contrast(
+                Math.round(ratio * 100) / 100.0,
+                rating,
+                new AnalysisResult.Requirements(ratio >= 4.5, ratio >= 7.0, ratio >= 5.0));
+    }
+
+    private double targetRatio(String level) {
+        if (level == null) return 4.5;
+        return switch (level.toUpperCase()) {
+            case "AAA" -> 7.0;
+            case "STRICT" -> 5.0;
+            default -> 4.5;
+        };
+    }
+
+    private boolean isTextColorKey(String key) {
+        return key.startsWith("text") || key.equals("color") || key.equals("h1");
+    }
+
+    /**
+     * Text over a background image or gradient is only as readable as its worst region: checks the
+     * primary text against the lightest and darkest color of every sampled background.
+     */
+    private Optional<String> checkImageBackgrounds(Map<String, String> colors, String textColor, double threshold) {
+        String worstBackground = null;
+        double worstRatio = Double.MAX_VALUE;
+        for (Map.Entry<String, String> entry : colors.entrySet()) {
+            if (!WebScraperService.isImageExtremeKey(entry.getKey())) continue;
+
+            double ratio = calculateWCAGContrast(entry.getValue(), textColor);
+            if (ratio < worstRatio) {
+                worstRatio = ratio;
+                worstBackground = entry.getValue();
+            }
+        }
+        if (worstBackground == null || worstRatio >= threshold) return Optional.empty();
+        return Optional.of("Text over background images or gradients drops to "
+                + Math.round(worstRatio * 100) / 100.0 + ":1 where the background is " + worstBackground);
     }
 
     private String getSummary(String rating) {
@@ -112,42 +204,31 @@ public class ColorService {
         return "fails";
     }
 
-    private Map<String, List<String>> groupColorsByType(Map<String, String> colors) {
-        Map<String, List<String>> grouped = new LinkedHashMap<>();
-
-        grouped.put("backgrounds", colors.entrySet().stream()
-                .filter(e -> e.getKey().startsWith("background"))
-                .map(Map.Entry::getValue)
-                .distinct()
-                .collect(Collectors.toList()));
-
-        grouped.put("textColors", colors.entrySet().stream()
-                .filter(e -> e.getKey().startsWith("text") || e.getKey().equals("color"))
-                .map(Map.Entry::getValue)
-                .distinct()
-                .collect(Collectors.toList()));
-
-        grouped.put("buttons", colors.entrySet().stream()
-                .filter(e -> e.getKey().startsWith("button"))
-                .map(Map.Entry::getValue)
-                .distinct()
-                .collect(Collectors.toList()));
-
-        // Add remaining colors
-        List<String> others = colors.entrySet().stream()
-                .filter(e -> !e.getKey().startsWith("background") &&
-                        !e.getKey().startsWith("text") &&
-                        !e.getKey().equals("color") &&
-                        !e.getKey().startsWith("button"))
-                .map(Map.Entry::getValue)
-                .distinct()
-                .collect(Collectors.toList());
-
-        if (!others.isEmpty()) {
-            grouped.put("other", others);
+    // One pass over the palette; each group keeps first-seen order without duplicates
+    private AnalysisResult.ColorGroups groupColorsByType(Map<String, String> colors) {
+        Set<String> backgrounds = new LinkedHashSet<>();
+        Set<String> textColors = new LinkedHashSet<>();
+        Set<String> buttons = new LinkedHashSet<>();
+        Set<String> others = new LinkedHashSet<>();
+
+        for (Map.Entry<String, String> entry : colors.entrySet()) {
+            String key = entry.getKey();
+            // Single pixels of an image aren't page colors; they only feed checkImageBackgrounds
+            if (WebScraperService.isImageExtremeKey(key)) continue;
+
+            if (key.startsWith("background")) {
+                backgrounds.add(entry.getValue());
+            } else if (key.startsWith("text") || key.equals("color")) {
+                textColors.add(entry.getValue());
+            } else if (key.startsWith("button")) {
+                buttons.add(entry.getValue());
+            } else {
+                others.add(entry.getValue());
+            }
         }
 
-        return grouped;
+        return new AnalysisResult.ColorGroups(List.copyOf(backgrounds), List.copyOf(textColors),
+                List.copyOf(buttons), List.copyOf(others));
     }
 
     private double calculateWCAGContrast(String hex1, String hex2) {
@@ -202,6 +283,7 @@ public class ColorService {
 
         // Fallback to frequency analysis
         return colors.entrySet().stream()
+                .filter(e -> !WebScraperService.isImageExtremeKey(e.getKey()))
                 .filter(e -> e.getKey().toLowerCase().contains(type.toLowerCase()))
                 .max(Comparator.comparingLong(e -> getColorFrequency(colors, e.getValue())))
                 .map(Map.Entry::getValue)
@@ -209,7 +291,9 @@ public class ColorService {
     }
 
     private long getColorFrequency(Map<String, String> colors, String target) {
-        return colors.values().stream()
+        return colors.entrySet().stream()
+                .filter(e -> !WebScraperService.isImageExtremeKey(e.getKey()))
+                .map(Map.Entry::getValue)
                 .filter(c -> c.equalsIgnoreCase(target))
                 .count();
     }
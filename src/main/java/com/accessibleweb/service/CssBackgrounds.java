@@ -0,0 +1,203 @@
+package com.accessibleweb.service;
+
+import java.net.URI;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the parts of CSS background values that plain color extraction can't use: the color stops
+ * of linear, radial and conic gradients (including repeating ones) and the url() references of
+ * background images. Colors come back as packed ARGB ints so gradients and decoded image pixels go
+ * through the same palette code.
+ */
+final class CssBackgrounds {
+
+    private static final Pattern DECLARATION = Pattern.compile(
+            "background(?:-image)?\\s*:\\s*([^;}]*(?:gradient|url)\\s*\\([^;}]*)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern GRADIENT = Pattern.compile(
+            "(?:repeating-)?(?:linear|radial|conic)-gradient\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern URL = Pattern.compile("url\\(\\s*['\"]?([^'\")]+)['\"]?\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COLOR = Pattern.compile(
+            "#[0-9a-f]{3,8}\\b|(?:rgb|hsl)a?\\s*\\([^)]*\\)|\\b[a-z]+\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NUMBER = Pattern.compile("-?[\\d.]+%?");
+
+    private static final Map<String, Integer> NAMED_COLORS = Map.ofEntries(
+            Map.entry("white", 0xffffff), Map.entry("black", 0x000000), Map.entry("red", 0xff0000),
+            Map.entry("blue", 0x0000ff), Map.entry("green", 0x008000), Map.entry("yellow", 0xffff00),
+            Map.entry("purple", 0x800080), Map.entry("gray", 0x808080), Map.entry("grey", 0x808080),
+            Map.entry("orange", 0xffa500), Map.entry("navy", 0x000080), Map.entry("teal", 0x008080),
+            Map.entry("silver", 0xc0c0c0), Map.entry("maroon", 0x800000), Map.entry("olive", 0x808000),
+            Map.entry("lime", 0x00ff00), Map.entry("aqua", 0x00ffff), Map.entry("fuchsia", 0xff00ff),
+            Map.entry("pink", 0xffc0cb), Map.entry("transparent", 0));
+
+    private CssBackgrounds() {}
+
+    // Background values in a style attribute or stylesheet that use a gradient or an image
+    static List<String> declarations(String css) {
+        List<String> values = new ArrayList<>();
+        if (css == null || css.isEmpty()) return values;
+
+        Matcher matcher = DECLARATION.matcher(css);
+        while (matcher.find()) {
+            values.add(matcher.group(1).trim());
+        }
+        return values;
+    }
+
+    static boolean isGradientOrImage(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        return lower.contains("gradient(") || lower.contains("url(");
+    }
+
+    // Stops of every gradient in the value, in order; fully transparent stops are dropped
+    static int[] gradientStops(String value) {
+        List<Integer> stops = new ArrayList<>();
+        Matcher gradient = GRADIENT.matcher(value);
+        int from = 0;
+        while (gradient.find(from)) {
+            int end = closingParenthesis(value, gradient.end());
+            for (String argument : splitTopLevel(value.substring(gradient.end(), end))) {
+                Integer argb = leadingColor(argument);
+                if (argb != null && (argb >>> 24) != 0) stops.add(argb);
+            }
+            from = end;
+        }
+        return stops.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Absolute http(s) image urls referenced by the value; data: and other schemes are skipped
+    static List<String> imageUrls(String value, String baseUrl) {
+        List<String> urls = new ArrayList<>();
+        Matcher matcher = URL.matcher(value);
+        while (matcher.find()) {
+            try {
+                URI resolved = baseUrl == null || baseUrl.isEmpty()
+                        ? URI.create(matcher.group(1).trim())
+                        : URI.create(baseUrl).resolve(matcher.group(1).trim());
+                String scheme = resolved.getScheme();
+                if ("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme)) {
+                    urls.add(resolved.toString());
+                }
+            } catch (IllegalArgumentException e) {
+                // Not a usable url; the rest of the value still counts
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Parses one CSS color: #rgb, #rgba, #rrggbb, #rrggbbaa, rgb()/rgba() and hsl()/hsla() in comma
+     * or space syntax, and common named colors. Returns null for anything else.
+     */
+    static Integer parseColor(String token) {
+        String color = token.trim().toLowerCase(Locale.ROOT);
+        if (color.startsWith("#")) return parseHex(color.substring(1));
+        if (color.startsWith("rgb") || color.startsWith("hsl")) {
+            int open = color.indexOf('(');
+            int close = color.lastIndexOf(')');
+            if (open < 0 || close < open) return null;
+
+            List<String> parts = new ArrayList<>();
+            Matcher number = NUMBER.matcher(color.substring(open + 1, close));
+            while (number.find()) parts.add(number.group());
+            if (parts.size() < 3) return null;
+
+            try {
+                int alpha = parts.size() > 3 ? clamp(fraction(parts.get(3)) * 255) : 255;
+                int rgb = color.startsWith("rgb")
+                        ? (channel(parts.get(0)) << 16) | (channel(parts.get(1)) << 8) | channel(parts.get(2))
+                        : hslToRgb(Double.parseDouble(parts.get(0).replace("%", "")),
+                                fraction(parts.get(1)), fraction(parts.get(2)));
+                return (alpha << 24) | rgb;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        Integer named = NAMED_COLORS.get(color);
+        if (named == null) return null;
+        return color.equals("transparent") ? 0 : 0xff000000 | named;
+    }
+
+    static String toHex(int argb) {
+        return String.format("#%06x", argb & 0xffffff);
+    }
+
+    // The color at the start of a gradient argument ("#fff 20%", "rgba(0,0,0,.5) 0 50%");
+    // direction, shape and position arguments have none
+    private static Integer leadingColor(String argument) {
+        Matcher matcher = COLOR.matcher(argument.trim());
+        return matcher.lookingAt() ? parseColor(matcher.group()) : null;
+    }
+
+    private static Integer parseHex(String hex) {
+        if (!hex.matches("[0-9a-f]{3,8}") || hex.length() == 5 || hex.length() == 7) return null;
+        if (hex.length() <= 4) {
+            StringBuilder expanded = new StringBuilder();
+            for (char c : hex.toCharArray()) expanded.append(c).append(c);
+            hex = expanded.toString();
+        }
+        long value = Long.parseLong(hex, 16);
+        return hex.length() == 8
+                ? (int) (((value & 0xff) << 24) | (value >>> 8))
+                : (int) (0xff000000L | value);
+    }
+
+    private static int channel(String value) {
+        return value.endsWith("%") ? clamp(fraction(value) * 255) : clamp(Double.parseDouble(value));
+    }
+
+    // "50%" and "0.5" both mean one half
+    private static double fraction(String value) {
+        return value.endsWith("%")
+                ? Double.parseDouble(value.substring(0, value.length() - 1)) / 100
+                : Double.parseDouble(value);
+    }
+
+    private static int hslToRgb(double hue, double saturation, double lightness) {
+        double h = ((hue % 360) + 360) % 360;
+        double c = (1 - Math.abs(2 * lightness - 1)) * saturation;
+        double x = c * (1 - Math.abs((h / 60) % 2 - 1));
+        double m = lightness - c / 2;
+        double[] rgb = switch ((int) (h / 60)) {
+            case 0 -> new double[]{c, x, 0};
+            case 1 -> new double[]{x, c, 0};
+            case 2 -> new double[]{0, c, x};
+            case 3 -> new double[]{0, x, c};
+            case 4 -> new double[]{x, 0, c};
+            default -> new double[]{c, 0, x};
+        };
+        return (clamp((rgb[0] + m) * 255) << 16) | (clamp((rgb[1] + m) * 255) << 8) | clamp((rgb[2] + m) * 255);
+    }
+
+    private static int clamp(double value) {
+        return (int) Math.max(0, Math.min(255, Math.round(value)));
+    }
+
+    private static int closingParenthesis(String value, int from) {
+        int depth = 1;
+        for (int i = from; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')' && --depth == 0) return i;
+        }
+        return value.length();
+    }
+
+    private static List<String> splitTopLevel(String arguments) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < arguments.length(); i++) {
+            char c = arguments.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')') depth--;
+            else if (c == ',' && depth == 0) {
+                parts.add(arguments.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(arguments.substring(start));
+        return parts;
+    }
+}
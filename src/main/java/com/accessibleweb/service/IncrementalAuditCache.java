@@ -0,0 +1,89 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Remembers validators (ETag, Last-Modified, content hash) and extraction results for pages
+ * and stylesheets, plus the last analysis per (url, mode), so re-audits can skip unchanged work.
+ * Sampled background image palettes are kept by image url for every audit, incremental or not.
+ * Each map is a bounded LRU.
+ */
+@Component
+public class IncrementalAuditCache {
+
+    public record Validators(String etag, String lastModified, String contentHash) {}
+
+    record PageEntry(Validators validators, Map<String, String> pageColors,
+                     Map<String, Set<String>> inlineColorSets, List<String> stylesheets) {}
+
+    record StylesheetEntry(Validators validators, Map<String, Set<String>> colorSets, long checkedAt) {}
+
+    record AnalysisEntry(Map<String, String> colors, AnalysisResult result) {}
+
+    private final long revalidateAfterMs;
+    private final Map<String, PageEntry> pages;
+    private final Map<String, StylesheetEntry> stylesheets;
+    private final Map<String, AnalysisEntry> analyses;
+    private final Map<String, BackgroundImageSampler.Palette> images;
+
+    public IncrementalAuditCache(
+            @Value("${incremental.max-entries:20000}") int maxEntries,
+            @Value("${incremental.stylesheet-revalidate-after-ms:60000}") long revalidateAfterMs
+    ) {
+        this.revalidateAfterMs = revalidateAfterMs;
+        this.pages = lru(maxEntries);
+        this.stylesheets = lru(maxEntries);
+        this.analyses = lru(maxEntries);
+        this.images = lru(maxEntries);
+    }
+
+    PageEntry page(String url) {
+        return pages.get(url);
+    }
+
+    void putPage(String url, PageEntry entry) {
+        pages.put(url, entry);
+    }
+
+    StylesheetEntry stylesheet(String url) {
+        return stylesheets.get(url);
+    }
+
+    void putStylesheet(String url, StylesheetEntry entry) {
+        stylesheets.put(url, entry);
+    }
+
+    // Stylesheets shared by many pages are revalidated at most once per window
+    boolean isFresh(StylesheetEntry entry, long now) {
+        return now - entry.checkedAt() < revalidateAfterMs;
+    }
+
+    AnalysisEntry analysis(String url, String mode) {
+        return analyses.get(url + ' ' + mode);
+    }
+
+    void putAnalysis(String url, String mode, Map<String, String> colors, AnalysisResult result) {
+        analyses.put(url + ' ' + mode, new AnalysisEntry(colors, result));
+    }
+
+    BackgroundImageSampler.Palette image(String url) {
+        return images.get(url);
+    }
+
+    void putImage(String url, BackgroundImageSampler.Palette palette) {
+        images.put(url, palette);
+    }
+
+    private static <V> Map<String, V> lru(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.BatchShard;
+import com.accessibleweb.model.ShardResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.LambdaClientBuilder;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs each shard as a synchronous invocation of a Lambda function. The request payload is the
+ * BatchShard as JSON and the function replies with a ShardResult; a function error fails the shard
+ * so the coordinator retries it. The client is built on first use to keep it out of startup.
+ */
+@Component
+@ConditionalOnProperty(name = "batch.invoker", havingValue = "lambda")
+public class LambdaShardInvoker implements ShardInvoker {
+
+    private final String functionName;
+    private final String region;
+    private final String endpoint;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor batchExecutor;
+
+    private volatile LambdaClient lambda;
+
+    @Autowired
+    public LambdaShardInvoker(
+            @Value("${batch.lambda.function-name:colorblind-shard-worker}") String functionName,
+            @Value("${batch.lambda.region:us-east-1}") String region,
+            @Value("${batch.lambda.endpoint:}") String endpoint,
+            ObjectMapper objectMapper,
+            @Qualifier("batchExecutor") ThreadPoolTaskExecutor batchExecutor
+    ) {
+        this.functionName = functionName;
+        this.region = region;
+        this.endpoint = endpoint;
+        this.objectMapper = objectMapper;
+        this.batchExecutor = batchExecutor;
+    }
+
+    @Override
+    public CompletableFuture<ShardResult> invoke(BatchShard shard) {
+        return CompletableFuture.supplyAsync(() -> call(shard), batchExecutor);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (lambda != null) lambda.close();
+    }
+
+    private ShardResult call(BatchShard shard) {
+        try {
+            InvokeResponse response = client().invoke(InvokeRequest.builder()
+                    .functionName(functionName)
+                    .payload(SdkBytes.fromByteArray(objectMapper.writeValueAsBytes(shard)))
+                    .build());
+
+            if (response.functionError() != null) {
+                throw new IllegalStateException("Lambda " + functionName + " failed shard " + shard.index()
+                        + " of batch " + shard.batchId() + ": " + response.payload().asUtf8String());
+            }
+            return objectMapper.readValue(response.payload().asByteArray(), ShardResult.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private LambdaClient client() {
+        LambdaClient client = lambda;
+        if (client == null) {
+            synchronized (this) {
+                client = lambda;
+                if (client == null) {
+                    lambda = client = buildClient();
+                }
+            }
+        }
+        return client;
+    }
+
+    private LambdaClient buildClient() {
+        LambdaClientBuilder builder = LambdaClient.builder().region(Region.of(region));
+        if (!endpoint.isEmpty()) {
+            // Local emulators accept any credentials
+            builder.endpointOverride(URI.create(endpoint))
+                    .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("local", "local")));
+        }
+        return builder.build();
+    }
+}
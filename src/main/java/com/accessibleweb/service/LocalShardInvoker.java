@@ -0,0 +1,32 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.config.PriorityTaskExecutor;
+import com.accessibleweb.model.BatchShard;
+import com.accessibleweb.model.ShardResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+// Runs shards on this node's analysis executor at batch priority, behind any interactive requests
+@Component
+@ConditionalOnProperty(name = "batch.invoker", havingValue = "local", matchIfMissing = true)
+public class LocalShardInvoker implements ShardInvoker {
+
+    private final ShardWorker shardWorker;
+    private final PriorityTaskExecutor analysisExecutor;
+
+    @Autowired
+    public LocalShardInvoker(ShardWorker shardWorker,
+                             @Qualifier("analysisExecutor") PriorityTaskExecutor analysisExecutor) {
+        this.shardWorker = shardWorker;
+        this.analysisExecutor = analysisExecutor;
+    }
+
+    @Override
+    public CompletableFuture<ShardResult> invoke(BatchShard shard) {
+        return analysisExecutor.supply(PriorityTaskExecutor.Priority.BATCH, () -> shardWorker.run(shard));
+    }
+}
@@ -0,0 +1,360 @@
+package com.accessibleweb.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Service
+public class OriginHealthTracker {
+
+    public enum BreakerState { CLOSED, OPEN, HALF_OPEN }
+
+    @FunctionalInterface
+    public interface OriginCall<T> {
+        T fetch(int timeoutMs) throws IOException;
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
+    private final int minTimeoutMs;
+    private final double timeoutMultiplier;
+    private final MeterRegistry meterRegistry;
+    private final OriginTags originTags;
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    private final int maxTrackedOrigins;
+    // Access-ordered, so the least recently used hosts come first when idle ones are evicted
+    private final Map<String, OriginState> origins = new LinkedHashMap<>(16, 0.75f, true);
+    // Rejections of evicted untagged hosts, so the shared "other" counter never goes backwards
+    private double evictedRejections;
+
+    public OriginHealthTracker(
+            @Value("${origin.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${origin.breaker.open-duration-ms:30000}") long openDurationMs,
+            @Value("${origin.retry.max-attempts:2}") int maxAttempts,
+            @Value("${origin.retry.base-delay-ms:200}") long retryBaseDelayMs,
+            @Value("${origin.timeout.min-ms:1000}") int minTimeoutMs,
+            @Value("${origin.timeout.p99-multiplier:3.0}") double timeoutMultiplier,
+            @Value("${origin.max-tracked:10000}") int maxTrackedOrigins,
+            @Value("${metrics.origin-tags.max:100}") int maxOriginTags,
+            MeterRegistry meterRegistry
+    ) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        this.minTimeoutMs = minTimeoutMs;
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.maxTrackedOrigins = maxTrackedOrigins;
+        this.meterRegistry = meterRegistry;
+        this.originTags = new OriginTags(maxOriginTags);
+
+        // Hosts past the tag limit share one rejection counter; their state is in snapshot() only
+        FunctionCounter.builder("colorblind.origin.breaker.rejections", this, OriginHealthTracker::untaggedRejections)
+                .description("Fetches rejected without calling the origin because its breaker was open")
+                .tag("origin", OriginTags.OTHER)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs an outbound fetch against the url's host with an adaptive timeout
+     * (capped at maxTimeoutMs and at the thread's deadline, if any), retrying transient
+     * failures with jittered backoff. Throws OriginUnavailableException without calling
+     * out when the host's breaker is open.
+     */
+    public <T> T execute(String url, int maxTimeoutMs, OriginCall<T> call) throws IOException {
+        String host = hostOf(url);
+        OriginState state = stateFor(host);
+
+        IOException lastFailure = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long now = System.currentTimeMillis();
+            long remainingMs = remainingMs(now);
+            if (remainingMs <= 0) {
+                // Out of time for this request; not the origin's fault, so nothing is recorded
+                throw lastFailure != null ? lastFailure : new SocketTimeoutException("Request deadline exceeded");
+            }
+            if (!state.tryAcquire(now)) {
+                throw new OriginUnavailableException(host, state.retryAfterMs(now));
+            }
+
+            int timeoutMs = (int) Math.max(1, Math.min(state.adaptiveTimeout(maxTimeoutMs), remainingMs));
+            long start = System.nanoTime();
+            try {
+                T result = call.fetch(timeoutMs);
+                state.recordSuccess((System.nanoTime() - start) / 1_000_000);
+                return result;
+            } catch (HttpStatusException e) {
+                // The origin answered; only server errors count against its health
+                if (e.getStatusCode() < 500) {
+                    state.recordSuccess((System.nanoTime() - start) / 1_000_000);
+                    throw e;
+                }
+                lastFailure = e;
+            } catch (IOException e) {
+                lastFailure = e;
+            } catch (RuntimeException | Error e) {
+                // Not retried, but still recorded so a half-open probe can't stay in flight forever
+                state.recordFailure(System.currentTimeMillis());
+                throw e;
+            }
+
+            state.recordFailure(System.currentTimeMillis());
+            log.debug("Fetch attempt {} of {} failed for {}: {}", attempt, maxAttempts, url, lastFailure.getMessage());
+
+            if (attempt < maxAttempts && !backoff(attempt)) break;
+        }
+        throw lastFailure;
+    }
+
+    /**
+     * Caps every fetch made on this thread until endDeadline() so it ends by the given wall-clock
+     * time. Cancelling a task doesn't interrupt a blocked socket read, so this is what bounds how
+     * long an abandoned request keeps its worker thread.
+     */
+    public void beginDeadline(long deadlineAtMillis) {
+        DEADLINE.set(deadlineAtMillis);
+    }
+
+    public void endDeadline() {
+        DEADLINE.remove();
+    }
+
+    // Time left before this thread's deadline; Long.MAX_VALUE when it has none
+    public long remainingMs() {
+        return remainingMs(System.currentTimeMillis());
+    }
+
+    /**
+     * Runs work under the given deadline on the current thread, then restores whatever deadline the
+     * thread had before. For handing a request's deadline to another pool, whose tasks may also run
+     * on the caller's own thread.
+     */
+    public <T> T callWithDeadline(long deadlineAtMillis, Callable<T> work) throws Exception {
+        Long previous = DEADLINE.get();
+        DEADLINE.set(deadlineAtMillis);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) DEADLINE.remove();
+            else DEADLINE.set(previous);
+        }
+    }
+
+    private static long remainingMs(long now) {
+        Long deadline = DEADLINE.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - now;
+    }
+
+    public BreakerState getState(String host) {
+        OriginState state;
+        synchronized (origins) {
+            state = origins.get(host);
+        }
+        return state == null ? BreakerState.CLOSED : state.currentState(System.currentTimeMillis());
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        long now = System.currentTimeMillis();
+        Map<String, OriginState> tracked;
+        synchronized (origins) {
+            tracked = new HashMap<>(origins);
+        }
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        tracked.forEach((host, state) -> result.put(host, state.describe(now)));
+        return result;
+    }
+
+    private OriginState stateFor(String host) {
+        synchronized (origins) {
+            OriginState state = origins.get(host);
+            if (state == null) {
+                state = register(host);
+                origins.put(host, state);
+                if (origins.size() > maxTrackedOrigins) evictIdle(System.currentTimeMillis());
+            }
+            return state;
+        }
+    }
+
+    // Forgets the least recently used hosts whose breaker is closed. Open breakers and hosts with
+    // their own meters are kept, so the map can exceed the cap while many origins are failing.
+    private void evictIdle(long now) {
+        Iterator<OriginState> states = origins.values().iterator();
+        while (origins.size() > maxTrackedOrigins && states.hasNext()) {
+            OriginState state = states.next();
+            if (!state.tagged && state.isIdle(now)) {
+                evictedRejections += state.rejectionCount();
+                states.remove();
+            }
+        }
+    }
+
+    // Breaker state is exported as 0 = closed, 1 = open, 2 = half-open
+    private OriginState register(String host) {
+        OriginState state = new OriginState(!originTags.tagFor(host).equals(OriginTags.OTHER));
+        if (!state.tagged) return state;
+
+        Gauge.builder("colorblind.origin.breaker.state", state, s -> s.currentState(System.currentTimeMillis()).ordinal())
+                .description("Circuit breaker state per origin (0 closed, 1 open, 2 half-open)")
+                .tag("origin", host)
+                .register(meterRegistry);
+        FunctionCounter.builder("colorblind.origin.breaker.rejections", state, OriginState::rejectionCount)
+                .description("Fetches rejected without calling the origin because its breaker was open")
+                .tag("origin", host)
+                .register(meterRegistry);
+        return state;
+    }
+
+    private double untaggedRejections() {
+        synchronized (origins) {
+            double total = evictedRejections;
+            for (OriginState state : origins.values()) {
+                if (!state.tagged) total += state.rejectionCount();
+            }
+            return total;
+        }
+    }
+
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? url : host.toLowerCase();
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    // Full jitter: sleep a random amount up to the exponential backoff ceiling
+    private boolean backoff(int attempt) {
+        long ceiling = retryBaseDelayMs << (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private final class OriginState {
+        private static final int WINDOW = 64;
+        private static final int MIN_SAMPLES = 8;
+
+        private final boolean tagged;
+        private final long[] latencies = new long[WINDOW];
+        private int sampleCount;
+        private int next;
+
+        private BreakerState state = BreakerState.CLOSED;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean probeInFlight;
+
+        private long successes;
+        private long failures;
+        private long rejections;
+
+        OriginState(boolean tagged) {
+            this.tagged = tagged;
+        }
+
+        synchronized boolean tryAcquire(long now) {
+            BreakerState current = currentState(now);
+            if (current == BreakerState.CLOSED) return true;
+            if (current == BreakerState.HALF_OPEN && !probeInFlight) {
+                // Let a single probe through to test whether the origin has recovered
+                state = BreakerState.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            }
+            rejections++;
+            return false;
+        }
+
+        synchronized BreakerState currentState(long now) {
+            if (state == BreakerState.OPEN && now >= openUntil) return BreakerState.HALF_OPEN;
+            return state;
+        }
+
+        synchronized boolean isIdle(long now) {
+            return currentState(now) == BreakerState.CLOSED && !probeInFlight;
+        }
+
+        synchronized long retryAfterMs(long now) {
+            return Math.max(0, openUntil - now);
+        }
+
+        synchronized void recordSuccess(long latencyMs) {
+            latencies[next] = latencyMs;
+            next = (next + 1) % WINDOW;
+            sampleCount = Math.min(sampleCount + 1, WINDOW);
+
+            successes++;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+            state = BreakerState.CLOSED;
+        }
+
+        synchronized void recordFailure(long now) {
+            failures++;
+            consecutiveFailures++;
+            boolean probeFailed = probeInFlight;
+            probeInFlight = false;
+
+            if (probeFailed || consecutiveFailures >= failureThreshold) {
+                if (state != BreakerState.OPEN) {
+                    log.warn("Opening circuit breaker after {} consecutive failures", consecutiveFailures);
+                }
+                state = BreakerState.OPEN;
+                openUntil = now + openDurationMs;
+            }
+        }
+
+        // Timeout follows the origin's observed p99 latency; unknown origins get the full budget
+        synchronized int adaptiveTimeout(int maxTimeoutMs) {
+            if (sampleCount < MIN_SAMPLES) return maxTimeoutMs;
+            long timeout = (long) (percentile(0.99) * timeoutMultiplier);
+            return (int) Math.max(minTimeoutMs, Math.min(maxTimeoutMs, timeout));
+        }
+
+        synchronized double rejectionCount() {
+            return rejections;
+        }
+
+        synchronized Map<String, Object> describe(long now) {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("state", currentState(now).name());
+            info.put("consecutiveFailures", consecutiveFailures);
+            info.put("successes", successes);
+            info.put("failures", failures);
+            info.put("rejections", rejections);
+            info.put("p50LatencyMs", sampleCount == 0 ? 0 : percentile(0.50));
+            info.put("p99LatencyMs", sampleCount == 0 ? 0 : percentile(0.99));
+            info.put("retryAfterMs", retryAfterMs(now));
+            return info;
+        }
+
+        private long percentile(double p) {
+            long[] sorted = Arrays.copyOf(latencies, sampleCount);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)];
+        }
+    }
+}
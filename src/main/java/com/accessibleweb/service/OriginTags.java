@@ -0,0 +1,32 @@
+package com.accessibleweb.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caps how many origin hosts get their own "origin" meter tag. The first maxTagged hosts seen keep
+ * their name; every later host is reported as "other", so auditing many sites can't grow the meter
+ * registry without bound.
+ */
+final class OriginTags {
+
+    static final String OTHER = "other";
+
+    private final int maxTagged;
+    private final Set<String> tagged = ConcurrentHashMap.newKeySet();
+
+    OriginTags(int maxTagged) {
+        this.maxTagged = maxTagged;
+    }
+
+    String tagFor(String host) {
+        if (tagged.contains(host)) return host;
+        synchronized (tagged) {
+            if (tagged.size() < maxTagged) {
+                tagged.add(host);
+                return host;
+            }
+        }
+        return OTHER;
+    }
+}
@@ -0,0 +1,21 @@
+package com.accessibleweb.service;
+
+// Thrown when an origin's circuit breaker is open, so callers can fail fast instead of waiting on a dead host
+public class OriginUnavailableException extends RuntimeException {
+    private final String host;
+    private final long retryAfterMs;
+
+    public OriginUnavailableException(String host, long retryAfterMs) {
+        super("Origin temporarily unavailable: " + host);
+        this.host = host;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,95 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.PaletteDrift;
+
+import java.util.*;
+
+/**
+ * Compares two analysis results for a page: colors added to or removed from the palette, text
+ * colors that newly fail (or no longer fail) against the primary background, and rating changes.
+ */
+final class PaletteDiff {
+
+    private PaletteDiff() {}
+
+    record Pair(String foreground, String background) implements Comparable<Pair> {
+        private static final Comparator<Pair> ORDER =
+                Comparator.comparing(Pair::foreground).thenComparing(Pair::background);
+
+        @Override
+        public int compareTo(Pair other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    // Check hasChanges() before reporting; an unchanged page gives a drift with no parts
+    static PaletteDrift between(AnalysisResult previous, AnalysisResult current) {
+        Set<String> before = palette(previous);
+        Set<String> after = palette(current);
+
+        Map<Pair, Double> failingBefore = failingPairs(previous);
+        Map<Pair, Double> failingAfter = failingPairs(current);
+
+        String ratingBefore = previous.colorAnalysis().contrast().rating();
+        String ratingAfter = current.colorAnalysis().contrast().rating();
+        PaletteDrift.RatingChange rating = Objects.equals(ratingBefore, ratingAfter) ? null
+                : new PaletteDrift.RatingChange(ratingBefore, ratingAfter, current.colorAnalysis().contrast().ratio());
+
+        return new PaletteDrift(
+                difference(after, before),
+                difference(before, after),
+                pairs(failingAfter, failingBefore.keySet()),
+                pairs(failingBefore, failingAfter.keySet()),
+                rating);
+    }
+
+    static Set<String> palette(AnalysisResult result) {
+        Set<String> colors = new LinkedHashSet<>();
+        AnalysisResult.ColorGroups rawData = result.rawData();
+        for (List<String> group : List.of(rawData.backgrounds(), rawData.textColors(), rawData.buttons(), rawData.other())) {
+            group.forEach(color -> colors.add(color.toLowerCase()));
+        }
+        return colors;
+    }
+
+    // Contrast ratio for every text color that misses the result's AA threshold on the primary background
+    static Map<Pair, Double> failingPairs(AnalysisResult result) {
+        Map<Pair, Double> failing = new TreeMap<>();
+        AnalysisResult.PrimaryColors primaryColors = result.colorAnalysis().primaryColors();
+        String backgroundColor = primaryColors.background().value();
+        int[] background = AccessibleColorSolver.parseHex(backgroundColor);
+        if (background == null) return failing;
+
+        double threshold = "strict".equals(result.analysisMode()) ? 5.0 : 4.5;
+        Set<String> textColors = new LinkedHashSet<>();
+        result.rawData().textColors().forEach(color -> textColors.add(color.toLowerCase()));
+        if (primaryColors.text().value() != null) textColors.add(primaryColors.text().value().toLowerCase());
+
+        for (String color : textColors) {
+            int[] foreground = AccessibleColorSolver.parseHex(color);
+            if (foreground == null) continue;
+            double ratio = AccessibleColorSolver.contrast(foreground, background);
+            if (ratio < threshold) {
+                failing.put(new Pair(color, backgroundColor.toLowerCase()), Math.round(ratio * 100) / 100.0);
+            }
+        }
+        return failing;
+    }
+
+    private static List<PaletteDrift.FailingPair> pairs(Map<Pair, Double> failing, Set<Pair> exclude) {
+        List<PaletteDrift.FailingPair> pairs = new ArrayList<>();
+        failing.forEach((pair, ratio) -> {
+            if (!exclude.contains(pair)) {
+                pairs.add(new PaletteDrift.FailingPair(pair.foreground(), pair.background(), ratio));
+            }
+        });
+        return pairs;
+    }
+
+    private static List<String> difference(Set<String> a, Set<String> b) {
+        List<String> result = new ArrayList<>(a);
+        result.removeAll(b);
+        return result;
+    }
+}
@@ -0,0 +1,124 @@
+package com.accessibleweb.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-stage timers and counters for the scrape/analyse pipeline, plus an optional per-request breakdown
+@Component
+public class PipelineMetrics {
+
+    @FunctionalInterface
+    public interface Stage<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private static final ThreadLocal<Map<String, Long>> BREAKDOWN = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final OriginTags originTags;
+
+    public PipelineMetrics(MeterRegistry registry, @Value("${metrics.origin-tags.max:100}") int maxOriginTags) {
+        this.registry = registry;
+        this.originTags = new OriginTags(maxOriginTags);
+    }
+
+    public <T, E extends Exception> T time(String stage, Stage<T, E> work) throws E {
+        long start = System.nanoTime();
+        try {
+            return work.run();
+        } finally {
+            record(stage, start);
+        }
+    }
+
+    // Outbound fetches are additionally tagged with the origin host (bounded, see OriginTags).
+    // No histogram here: buckets per host would multiply the series; the stage timer has one.
+    public <T, E extends Exception> T timeFetch(String stage, String url, Stage<T, E> work) throws E {
+        long start = System.nanoTime();
+        try {
+            return work.run();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("colorblind.fetch")
+                    .description("Outbound fetch latency per origin")
+                    .tag("stage", stage)
+                    .tag("origin", originTags.tagFor(OriginHealthTracker.hostOf(url)))
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            addToBreakdown(stage, elapsed);
+        }
+    }
+
+    public void record(String stage, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        Timer.builder("colorblind.pipeline.stage")
+                .description("Time spent in each stage of the scrape/analyse pipeline")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        addToBreakdown(stage, elapsed);
+    }
+
+    public void bytesFetched(String kind, String url, long bytes) {
+        DistributionSummary.builder("colorblind.fetch.bytes")
+                .baseUnit("bytes")
+                .tag("kind", kind)
+                .tag("origin", originTags.tagFor(OriginHealthTracker.hostOf(url)))
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void stylesheetFetched() {
+        registry.counter("colorblind.stylesheets.fetched").increment();
+    }
+
+    public void colorsExtracted(int count) {
+        DistributionSummary.builder("colorblind.colors.extracted")
+                .register(registry)
+                .record(count);
+    }
+
+    public void cacheHit(String cache) {
+        registry.counter("colorblind.cache.hits", "cache", cache).increment();
+    }
+
+    public void cacheMiss(String cache) {
+        registry.counter("colorblind.cache.misses", "cache", cache).increment();
+    }
+
+    public void beginBreakdown() {
+        BREAKDOWN.set(new LinkedHashMap<>());
+    }
+
+    // Returns milliseconds per stage recorded on this thread since beginBreakdown()
+    public Map<String, Double> endBreakdown() {
+        Map<String, Long> breakdown = BREAKDOWN.get();
+        BREAKDOWN.remove();
+
+        Map<String, Double> millis = new LinkedHashMap<>();
+        if (breakdown != null) {
+            breakdown.forEach((stage, nanos) -> millis.put(stage, Math.round(nanos / 10_000.0) / 100.0));
+        }
+        return millis;
+    }
+
+    // Discards this thread's breakdown without building a result, e.g. when the request failed
+    public void clearBreakdown() {
+        BREAKDOWN.remove();
+    }
+
+    private void addToBreakdown(String stage, long elapsedNanos) {
+        Map<String, Long> breakdown = BREAKDOWN.get();
+        if (breakdown != null) {
+            breakdown.merge(stage, elapsedNanos, Long::sum);
+        }
+    }
+}
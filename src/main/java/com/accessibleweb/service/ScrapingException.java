@@ -0,0 +1,9 @@
+package com.accessibleweb.service;
+
+// Thrown when a page can't be fetched or parsed, so callers never mistake a failure for an empty palette
+public class ScrapingException extends RuntimeException {
+
+    public ScrapingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
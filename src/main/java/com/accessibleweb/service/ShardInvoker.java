@@ -0,0 +1,15 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.BatchShard;
+import com.accessibleweb.model.ShardResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dispatches a batch shard to a worker. Implementations complete the future exceptionally
+ * when the shard couldn't be run at all; per-url failures are reported in the ShardResult.
+ */
+public interface ShardInvoker {
+
+    CompletableFuture<ShardResult> invoke(BatchShard shard);
+}
@@ -0,0 +1,65 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisRecord;
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.BatchShard;
+import com.accessibleweb.model.ShardResult;
+import com.accessibleweb.repository.AnalysisHistoryStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analyses the urls of one batch shard. The same code runs in-process and inside a
+ * remote worker (e.g. a Lambda function), so it only depends on the analysis and history beans.
+ */
+@Slf4j
+@Service
+public class ShardWorker {
+
+    private final ColorService colorService;
+    private final AnalysisHistoryStore historyStore;
+
+    @Autowired
+    public ShardWorker(ColorService colorService, AnalysisHistoryStore historyStore) {
+        this.colorService = colorService;
+        this.historyStore = historyStore;
+    }
+
+    public ShardResult run(BatchShard shard) {
+        Map<String, AnalysisResult> results = new LinkedHashMap<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+
+        for (String url : shard.urls()) {
+            if (Thread.currentThread().isInterrupted()) {
+                failures.put(url, "Interrupted");
+                continue;
+            }
+
+            // A retried shard skips urls an earlier attempt already stored for this batch
+            List<AnalysisRecord<AnalysisResult>> stored = historyStore.range(url, shard.batchTimestamp(),
+                    shard.batchTimestamp(), AnalysisResult.class);
+            if (!stored.isEmpty()) {
+                results.put(url, stored.get(0).result());
+                continue;
+            }
+
+            try {
+                AnalysisResult result = colorService.analyzeAccessibility(url, shard.mode());
+                historyStore.append(new AnalysisRecord<>(url, shard.batchTimestamp(), result));
+                results.put(url, result);
+            } catch (Exception e) {
+                log.debug("Batch {} shard {} failed for {}: {}", shard.batchId(), shard.index(), url, e.getMessage());
+                failures.put(url, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+            }
+        }
+
+        // Results must be durable before the shard is reported done
+        historyStore.flush();
+        return new ShardResult(shard.batchId(), shard.index(), results, failures);
+    }
+}
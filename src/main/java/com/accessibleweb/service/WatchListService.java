@@ -0,0 +1,228 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.config.PriorityTaskExecutor;
+import com.accessibleweb.model.AnalysisRecord;
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.DriftEvent;
+import com.accessibleweb.model.PaletteDrift;
+import com.accessibleweb.model.WatchStatus;
+import com.accessibleweb.repository.AnalysisHistoryStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Re-analyses watched URLs on a jittered cadence and reports palette drift. Runs go through the
+ * analysis executor at batch priority, which caps how many batch tasks hold workers, and at most
+ * watch.max-concurrent run at once, so monitoring never takes the threads interactive requests
+ * need. Each run's result is stored under "watch:" + mode + ":" + url, which is where the baseline
+ * is read back from after a restart, so a watch only ever compares runs of its own mode. Non-empty
+ * diffs are stored under "drift:" + url and also published to the registered listeners.
+ */
+@Slf4j
+@Service
+public class WatchListService {
+
+    public static final String DRIFT_KEY_PREFIX = "drift:";
+    public static final String WATCH_KEY_PREFIX = "watch:";
+
+    private final ColorService colorService;
+    private final AnalysisHistoryStore historyStore;
+    private final PriorityTaskExecutor analysisExecutor;
+    private final long intervalMs;
+    private final long jitterMs;
+    private final int maxWatches;
+    private final Semaphore permits;
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private final List<Consumer<DriftEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    public WatchListService(
+            ColorService colorService,
+            AnalysisHistoryStore historyStore,
+            @Qualifier("analysisExecutor") PriorityTaskExecutor analysisExecutor,
+            @Value("${watch.urls:}") String[] urls,
+            @Value("${watch.interval-ms:3600000}") long intervalMs,
+            @Value("${watch.jitter-ms:300000}") long jitterMs,
+            @Value("${watch.max-concurrent:2}") int maxConcurrent,
+            @Value("${watch.max-urls:500}") int maxWatches
+    ) {
+        this.colorService = colorService;
+        this.historyStore = historyStore;
+        this.analysisExecutor = analysisExecutor;
+        this.intervalMs = intervalMs;
+        this.jitterMs = jitterMs;
+        this.maxWatches = maxWatches;
+        this.permits = new Semaphore(Math.max(1, maxConcurrent));
+
+        for (String url : urls) {
+            if (!url.isBlank()) watch(url.trim(), "default");
+        }
+    }
+
+    // False when the watch list is full; re-watching a URL only updates its mode
+    public boolean watch(String url, String mode) {
+        String analysisMode = (mode == null) ? "default" : mode.toLowerCase();
+        Watch existing = watches.get(url);
+        if (existing != null) {
+            existing.mode = analysisMode;
+            return true;
+        }
+        if (watches.size() >= maxWatches) return false;
+
+        // First runs are spread over the jitter window rather than all firing at once
+        watches.putIfAbsent(url, new Watch(url, analysisMode, System.currentTimeMillis() + jitter()));
+        return true;
+    }
+
+    public boolean unwatch(String url) {
+        return watches.remove(url) != null;
+    }
+
+    public List<WatchStatus> watches() {
+        return watches.values().stream()
+                .sorted(Comparator.comparing(watch -> watch.url))
+                .map(Watch::describe)
+                .toList();
+    }
+
+    public List<AnalysisRecord<PaletteDrift>> drift(String url, Instant from, Instant to) {
+        return historyStore.range(DRIFT_KEY_PREFIX + url, from, to, PaletteDrift.class);
+    }
+
+    public void addListener(Consumer<DriftEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<DriftEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${watch.tick-ms:5000}", initialDelayString = "${watch.tick-ms:5000}")
+    public void runDueWatches() {
+        long now = System.currentTimeMillis();
+        for (Watch watch : watches.values()) {
+            if (watch.nextRunAt > now || !watch.running.compareAndSet(false, true)) continue;
+            if (!permits.tryAcquire()) {
+                watch.running.set(false);
+                return;
+            }
+
+            try {
+                analysisExecutor.submit(PriorityTaskExecutor.Priority.BATCH, () -> {
+                    try {
+                        check(watch);
+                    } finally {
+                        permits.release();
+                        watch.running.set(false);
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // Queue is busy; the watch stays due and is retried on the next tick
+                permits.release();
+                watch.running.set(false);
+                return;
+            }
+        }
+    }
+
+    void check(Watch watch) {
+        // History keys are millisecond precision; events carry the same timestamp as the stored diff
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        try {
+            AnalysisResult result = colorService.analyzeAccessibility(watch.url, watch.mode);
+            if (PaletteDiff.palette(result).isEmpty()) {
+                // Nothing was extracted (e.g. an error page); comparing would report every color as removed
+                watch.lastError = "No colors extracted";
+                return;
+            }
+
+            String runKey = WATCH_KEY_PREFIX + watch.mode + ':' + watch.url;
+            AnalysisResult previous = watch.lastResult != null ? watch.lastResult
+                    : historyStore.latest(runKey, AnalysisResult.class).map(AnalysisRecord::result).orElse(null);
+            watch.lastResult = result;
+            watch.lastError = null;
+            recordRun(runKey, now, result);
+
+            // Re-watching with another mode changes the baseline, not the page, so it isn't drift
+            if (previous != null && Objects.equals(previous.analysisMode(), result.analysisMode())) {
+                PaletteDrift diff = PaletteDiff.between(previous, result);
+                if (diff.hasChanges()) {
+                    recordDrift(watch.url, now, diff);
+                }
+            }
+        } catch (Exception e) {
+            // The last good result is kept, so an outage doesn't show up as drift there and back
+            log.debug("Watch run failed for {}: {}", watch.url, e.getMessage());
+            watch.lastError = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        } finally {
+            watch.lastRunAt = now;
+            watch.nextRunAt = now.toEpochMilli() + intervalMs + jitter();
+        }
+    }
+
+    private void recordRun(String runKey, Instant timestamp, AnalysisResult result) {
+        try {
+            historyStore.append(new AnalysisRecord<>(runKey, timestamp, result));
+        } catch (RuntimeException e) {
+            log.warn("Failed to record watch result for {}", runKey, e);
+        }
+    }
+
+    private void recordDrift(String url, Instant timestamp, PaletteDrift diff) {
+        log.info("Palette drift detected for {}: {}", url, diff);
+        try {
+            historyStore.append(new AnalysisRecord<>(DRIFT_KEY_PREFIX + url, timestamp, diff));
+        } catch (RuntimeException e) {
+            log.warn("Failed to record palette drift for {}", url, e);
+        }
+
+        DriftEvent event = new DriftEvent(url, timestamp, diff);
+        for (Consumer<DriftEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                log.debug("Drift listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private long jitter() {
+        return jitterMs <= 0 ? 0 : ThreadLocalRandom.current().nextLong(jitterMs + 1);
+    }
+
+    static final class Watch {
+        final String url;
+        final AtomicBoolean running = new AtomicBoolean();
+        volatile String mode;
+        volatile long nextRunAt;
+        volatile Instant lastRunAt;
+        volatile String lastError;
+        volatile AnalysisResult lastResult;
+
+        Watch(String url, String mode, long nextRunAt) {
+            this.url = url;
+            this.mode = mode;
+            this.nextRunAt = nextRunAt;
+        }
+
+        WatchStatus describe() {
+            return new WatchStatus(url, mode, lastRunAt, Instant.ofEpochMilli(nextRunAt), running.get(), lastError);
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.accessibleweb.service;
 
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -15,7 +19,30 @@ import java.util.regex.Pattern;
 @Service
 public class WebScraperService {
 
+    private final OriginHealthTracker originHealthTracker;
+    private final PipelineMetrics pipelineMetrics;
+    private final IncrementalAuditCache auditCache;
+    private final BackgroundImageSampler backgroundImageSampler;
+
+    @Autowired
+    public WebScraperService(OriginHealthTracker originHealthTracker, PipelineMetrics pipelineMetrics,
+                             IncrementalAuditCache auditCache, BackgroundImageSampler backgroundImageSampler) {
+        this.originHealthTracker = originHealthTracker;
+        this.pipelineMetrics = pipelineMetrics;
+        this.auditCache = auditCache;
+        this.backgroundImageSampler = backgroundImageSampler;
+    }
+
     public Map<String, String> extractColors(String url) {
+        return extractColors(url, false);
+    }
+
+    /**
+     * In incremental mode the page and its stylesheets are fetched with conditional GETs,
+     * and anything unchanged since the last audit (304 or identical content hash) reuses
+     * its earlier extraction instead of being parsed again.
+     */
+    public Map<String, String> extractColors(String url, boolean incremental) {
         Map<String, String> colors = new LinkedHashMap<>();
 
         try {
@@ -24,141 +51,378 @@ public class WebScraperService {
                 throw new IllegalArgumentException("URL cannot be empty");
             }
 
-            // Configure Jsoup connection with timeout and user agent
-            Document doc = Jsoup.connect(url)
-                               .timeout(10000)
-                               .userAgent("Chrome/120.0.0.0")
-                               .get();
+            if (incremental) {
+                return extractColorsIncrementally(url);
+            }
+
+            Document doc = fetchPage(url);
 
-            /*System.out.println(doc.html());*/
+            extractPageColors(doc, colors);
 
-            // Extract inline styles (Body background)
-            Element body = doc.body();
-            String bgColor = body.attr("bgcolor");
-            String bodyStyle = body.attr("style");
+            // Extract colors from external CSS files
+            extractExternalCss(doc, colors);
+            pipelineMetrics.colorsExtracted(colors.size());
 
+        } catch (OriginUnavailableException e) {
+            // Known-dead origin: surface it instead of returning an empty palette
+            throw e;
+        } catch (IOException e) {
+            log.error("Error fetching URL: {}", url, e);
+            throw new ScrapingException("Failed to fetch " + url + ": " + e.getMessage(), e);
+        } catch (Exception e) {
+            log.error("Unexpected error while scraping colors from URL: {}", url, e);
+            throw new ScrapingException("Failed to scrape colors from " + url + ": " + e.getMessage(), e);
+        }
 
-            if (!bgColor.isEmpty()) colors.put("body-bgcolor", bgColor);
-            String extractedBodyColor = extractColorFromStyle(bodyStyle);
-            if (!extractedBodyColor.isEmpty()) colors.put("body-style", extractedBodyColor);
+        return colors;
+    }
 
+    private void extractPageColors(Document doc, Map<String, String> colors) {
+        long inlineStart = System.nanoTime();
 
-            // ✅ Extract colors from <h1>
-            Element h1 = doc.selectFirst("h1");
-            if (h1 != null) {
-                String extractedH1Color = extractColorFromStyle(h1.attr("style"));
-                if (!extractedH1Color.isEmpty()) colors.put("h1", extractedH1Color);
-            }
+        // Extract inline styles (Body background)
+        Element body = doc.body();
+        String bgColor = body.attr("bgcolor");
+        String bodyStyle = body.attr("style");
 
-            // ✅ Extract unique button colors
-            Elements buttons = doc.select("button, .button, input[type=button], input[type=submit]");
-            for (Element button : buttons) {
-                // Try multiple methods to get the button color
-                String color = extractColorFromStyle(button.attr("style"));  // 1. Check inline style
 
-                // 2. Check computed style if no inline style found
-                if (color.isEmpty()) {
-                    // Try to get color from the button's classes
-                    String classes = button.className();
-                    if (!classes.isEmpty()) {
-                        for (String className : classes.split("\\s+")) {
-                            String classColor = getComputedCssProperty(doc, "." + className, "background-color");
-                            if (!classColor.isEmpty()) {
-                                color = classColor;
-                                break;
-                            }
-                        }
-                    }
+        if (!bgColor.isEmpty()) colors.put("body-bgcolor", bgColor);
+        String extractedBodyColor = extractColorFromStyle(bodyStyle);
+        if (!extractedBodyColor.isEmpty()) colors.put("body-style", extractedBodyColor);
 
-                    // If still no color found, try direct button selector
-                    if (color.isEmpty()) {
-                        color = getComputedCssProperty(doc, "button", "background-color");
-                    }
-                }
 
-                // 3. Check computed background-color
-                if (color.isEmpty()) {
-                    String computedStyle = button.attr("style");
-                    if (computedStyle.contains("background-color")) {
-                        Pattern bgColorPattern = Pattern.compile("background-color:\\s*([^;]+)");
-                        Matcher matcher = bgColorPattern.matcher(computedStyle);
+        // ✅ Extract colors from <h1>
+        Element h1 = doc.selectFirst("h1");
+        if (h1 != null) {
+            String extractedH1Color = extractColorFromStyle(h1.attr("style"));
+            if (!extractedH1Color.isEmpty()) colors.put("h1", extractedH1Color);
+        }
 
-                        if (matcher.find()) {
-                            color = matcher.group(1).trim();
+        // ✅ Extract unique button colors
+        Elements buttons = doc.select("button, .button, input[type=button], input[type=submit]");
+        for (Element button : buttons) {
+            // Try multiple methods to get the button color
+            String color = extractColorFromStyle(button.attr("style"));  // 1. Check inline style
+
+            // 2. Check computed style if no inline style found
+            if (color.isEmpty()) {
+                // Try to get color from the button's classes
+                String classes = button.className();
+                if (!classes.isEmpty()) {
+                    for (String className : classes.split("\\s+")) {
+                        String classColor = getComputedCssProperty(doc, "." + className, "background-color");
+                        if (!classColor.isEmpty()) {
+                            color = classColor;
+                            break;
                         }
                     }
                 }
 
-                // Add the color to uniqueButtonColors if found
-                if (!color.isEmpty()) {
-                    colors.put("button-" + colors.size(), color);
+                // If still no color found, try direct button selector
+                if (color.isEmpty()) {
+                    color = getComputedCssProperty(doc, "button", "background-color");
                 }
             }
 
-            // ✅ Extract colors from <style> tags
-            Elements styles = doc.select("style");
-            Pattern colorPattern = Pattern.compile("(color|background-color):\\s*([^;]+);");
+            // 3. Check computed background-color
+            if (color.isEmpty()) {
+                String computedStyle = button.attr("style");
+                if (computedStyle.contains("background-color")) {
+                    Pattern bgColorPattern = Pattern.compile("background-color:\\s*([^;]+)");
+                    Matcher matcher = bgColorPattern.matcher(computedStyle);
 
-            for (Element style : styles) {
-                Matcher matcher = colorPattern.matcher(style.html());
-                while (matcher.find()) {
-                    colors.put(matcher.group(1), matcher.group(2));
+                    if (matcher.find()) {
+                        color = matcher.group(1).trim();
+                    }
                 }
             }
 
-            // Extract colors from external CSS files
-            extractExternalCss(doc, colors);
+            // Add the color to uniqueButtonColors if found
+            if (!color.isEmpty()) {
+                colors.put("button-" + colors.size(), color);
+            }
+        }
 
-        } catch (IOException e) {
-            log.error("Error fetching URL: {}", url, e);
-            // Instead of returning empty map, you might want to throw a custom exception
-            // throw new ScrapingException("Failed to scrape colors from URL: " + url, e);
-        } catch (Exception e) {
-            log.error("Unexpected error while scraping colors from URL: {}", url, e);
-            // throw new ScrapingException("Unexpected error while scraping colors", e);
+        // ✅ Extract colors from <style> tags
+        Elements styles = doc.select("style");
+        Pattern colorPattern = Pattern.compile("(color|background-color):\\s*([^;]+);");
+
+        for (Element style : styles) {
+            Matcher matcher = colorPattern.matcher(style.html());
+            while (matcher.find()) {
+                colors.put(matcher.group(1), matcher.group(2));
+            }
+        }
+        pipelineMetrics.record("extract-inline", inlineStart);
+
+        extractBackgroundImages(doc, colors);
+    }
+
+    /**
+     * Resolves background declarations that use gradients or images (inline styles and <style>
+     * blocks) into colors. Gradient stops are read directly and images are sampled in parallel;
+     * each distinct background adds its dominant color as background-image-N. Its lightest and
+     * darkest colors are kept under background-image-N-lightest/-darkest for the worst-case text
+     * check only; they are not part of the page's palette. A body background given as a gradient
+     * or image is replaced by its dominant color, since the raw value can't be used for a
+     * contrast check.
+     */
+    private void extractBackgroundImages(Document doc, Map<String, String> colors) {
+        List<String> declarations = new ArrayList<>();
+        for (Element elem : doc.select("[style*=background]")) {
+            declarations.addAll(CssBackgrounds.declarations(elem.attr("style")));
         }
+        for (Element style : doc.select("style")) {
+            declarations.addAll(CssBackgrounds.declarations(style.html()));
+        }
+        if (declarations.isEmpty()) return;
+
+        List<String> imageUrls = new ArrayList<>();
+        for (String declaration : declarations) {
+            imageUrls.addAll(CssBackgrounds.imageUrls(declaration, doc.location()));
+        }
+        Map<String, BackgroundImageSampler.Palette> images = imageUrls.isEmpty()
+                ? Map.of()
+                : backgroundImageSampler.sampleAll(imageUrls);
+
+        Set<BackgroundImageSampler.Palette> palettes = new LinkedHashSet<>();
+        for (String declaration : declarations) {
+            BackgroundImageSampler.Palette palette = resolveBackground(declaration, doc.location(), images);
+            if (palette != null) palettes.add(palette);
+        }
+
+        String bodyBackground = colors.get("body-style");
+        if (bodyBackground != null && CssBackgrounds.isGradientOrImage(bodyBackground)) {
+            BackgroundImageSampler.Palette palette = resolveBackground(bodyBackground, doc.location(), images);
+            if (palette != null) colors.put("body-style", palette.dominant());
+            else colors.remove("body-style");
+        }
+
+        int index = 0;
+        for (BackgroundImageSampler.Palette palette : palettes) {
+            String key = "background-image-" + index++;
+            colors.put(key, palette.dominant());
+            colors.put(key + "-lightest", palette.lightest());
+            colors.put(key + "-darkest", palette.darkest());
+        }
+    }
+
+    // The top layer wins: the first sampled image, otherwise the gradient stops
+    private BackgroundImageSampler.Palette resolveBackground(String declaration, String baseUrl,
+                                                             Map<String, BackgroundImageSampler.Palette> images) {
+        for (String url : CssBackgrounds.imageUrls(declaration, baseUrl)) {
+            BackgroundImageSampler.Palette palette = images.get(url);
+            if (palette != null) return palette;
+        }
+        int[] stops = CssBackgrounds.gradientStops(declaration);
+        return stops.length == 0 ? null : BackgroundImageSampler.Palette.of(stops);
+    }
+
+    // Worst-case samples of a background image; only used to check text over the image
+    static boolean isImageExtremeKey(String key) {
+        return key.startsWith("background-image-") && (key.endsWith("-lightest") || key.endsWith("-darkest"));
+    }
 
+    // Outbound fetches are isolated here so benchmarks can substitute fixture content
+    Document fetchPage(String url) throws IOException {
+        Connection.Response response = fetchResource("page", url, null);
+        return pipelineMetrics.time("parse-page", response::parse);
+    }
+
+    String fetchStylesheet(String cssUrl) throws IOException {
+        return fetchResource("stylesheet", cssUrl, null).body();
+    }
+
+    // Sends the cached validators (if any) so an unchanged resource can answer 304 Not Modified
+    private Connection.Response fetchResource(String kind, String url, IncrementalAuditCache.Validators validators)
+            throws IOException {
+        boolean stylesheet = kind.equals("stylesheet");
+        Connection.Response response = pipelineMetrics.timeFetch("fetch-" + kind, url, () ->
+                originHealthTracker.execute(url, stylesheet ? 5000 : 10000, timeout -> {
+                    // Configure Jsoup connection with timeout and user agent
+                    Connection connection = Jsoup.connect(url)
+                            .timeout(timeout)
+                            .userAgent("Chrome/120.0.0.0")
+                            .ignoreContentType(stylesheet);
+                    if (validators != null && validators.etag() != null) {
+                        connection.header("If-None-Match", validators.etag());
+                    }
+                    if (validators != null && validators.lastModified() != null) {
+                        connection.header("If-Modified-Since", validators.lastModified());
+                    }
+                    return connection.execute();
+                }));
+        if (stylesheet) pipelineMetrics.stylesheetFetched();
+        pipelineMetrics.bytesFetched(kind, url, response.bodyAsBytes().length);
+
+        return response;
+    }
+
+    private Map<String, String> extractColorsIncrementally(String url) throws IOException {
+        IncrementalAuditCache.PageEntry page = auditCache.page(url);
+        Connection.Response response = fetchResource("page", url, page == null ? null : page.validators());
+
+        if (page != null && isUnchanged(response, page.validators())) {
+            pipelineMetrics.cacheHit("page");
+            auditCache.putPage(url, new IncrementalAuditCache.PageEntry(refreshValidators(response, page.validators()),
+                    page.pageColors(), page.inlineColorSets(), page.stylesheets()));
+        } else {
+            pipelineMetrics.cacheMiss("page");
+            Document doc = pipelineMetrics.time("parse-page", response::parse);
+
+            Map<String, String> pageColors = new LinkedHashMap<>();
+            extractPageColors(doc, pageColors);
+
+            Map<String, Set<String>> inlineColorSets = newColorSets();
+            long inlineStart = System.nanoTime();
+            extractInlineStyles(doc, inlineColorSets);
+            pipelineMetrics.record("extract-inline", inlineStart);
+
+            page = new IncrementalAuditCache.PageEntry(validatorsOf(response), pageColors, inlineColorSets,
+                    stylesheetUrls(doc));
+            auditCache.putPage(url, page);
+        }
+
+        // Rebuild the palette from the page's own colors plus each stylesheet's (possibly cached) colors
+        Map<String, String> colors = new LinkedHashMap<>(page.pageColors());
+        Map<String, Set<String>> colorSets = newColorSets();
+        mergeColorSets(colorSets, page.inlineColorSets());
+
+        for (String cssUrl : page.stylesheets()) {
+            // Stop fanning out once the request has been cancelled
+            if (Thread.currentThread().isInterrupted()) break;
+
+            Map<String, Set<String>> stylesheetColors = stylesheetColorsIncrementally(cssUrl);
+            if (stylesheetColors != null) mergeColorSets(colorSets, stylesheetColors);
+        }
+
+        addPrioritizedColors(colorSets, colors);
+        pipelineMetrics.colorsExtracted(colors.size());
         return colors;
     }
 
-    private void extractExternalCss(Document doc, Map<String, String> colors) {
-        Elements links = doc.select("link[rel=stylesheet]");
+    private Map<String, Set<String>> stylesheetColorsIncrementally(String cssUrl) {
+        long now = System.currentTimeMillis();
+        IncrementalAuditCache.StylesheetEntry cached = auditCache.stylesheet(cssUrl);
+        if (cached != null && auditCache.isFresh(cached, now)) {
+            pipelineMetrics.cacheHit("stylesheet");
+            return cached.colorSets();
+        }
+
+        try {
+            Connection.Response response = fetchResource("stylesheet", cssUrl, cached == null ? null : cached.validators());
+            if (cached != null && isUnchanged(response, cached.validators())) {
+                pipelineMetrics.cacheHit("stylesheet");
+                auditCache.putStylesheet(cssUrl, new IncrementalAuditCache.StylesheetEntry(
+                        refreshValidators(response, cached.validators()), cached.colorSets(), now));
+                return cached.colorSets();
+            }
+
+            pipelineMetrics.cacheMiss("stylesheet");
+            Map<String, Set<String>> colorSets = newColorSets();
+            long cssStart = System.nanoTime();
+            extractColorsByType(response.body(), colorSets);
+            pipelineMetrics.record("extract-css", cssStart);
 
+            auditCache.putStylesheet(cssUrl, new IncrementalAuditCache.StylesheetEntry(validatorsOf(response), colorSets, now));
+            return colorSets;
+        } catch (OriginUnavailableException e) {
+            log.debug("Skipping CSS file from unavailable origin: {}", cssUrl);
+        } catch (IOException e) {
+            log.warn("Failed to fetch CSS file: {} ({})", cssUrl, e.getMessage());
+        }
+        return null;
+    }
+
+    private boolean isUnchanged(Connection.Response response, IncrementalAuditCache.Validators previous) {
+        return response.statusCode() == 304 || contentHash(response).equals(previous.contentHash());
+    }
+
+    private IncrementalAuditCache.Validators validatorsOf(Connection.Response response) {
+        return new IncrementalAuditCache.Validators(
+                response.header("ETag"), response.header("Last-Modified"), contentHash(response));
+    }
+
+    // A 304 carries no body, so keep the earlier hash and any validator the server didn't resend
+    private IncrementalAuditCache.Validators refreshValidators(Connection.Response response,
+                                                               IncrementalAuditCache.Validators previous) {
+        String etag = response.header("ETag");
+        String lastModified = response.header("Last-Modified");
+        return new IncrementalAuditCache.Validators(
+                etag != null ? etag : previous.etag(),
+                lastModified != null ? lastModified : previous.lastModified(),
+                previous.contentHash());
+    }
+
+    private static String contentHash(Connection.Response response) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(response.bodyAsBytes()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private List<String> stylesheetUrls(Document doc) {
+        List<String> urls = new ArrayList<>();
+        for (Element link : doc.select("link[rel=stylesheet]")) {
+            String cssUrl = link.absUrl("href");
+            if (!cssUrl.isEmpty()) urls.add(cssUrl);
+        }
+        return urls;
+    }
+
+    private static Map<String, Set<String>> newColorSets() {
         Map<String, Set<String>> colorSets = new HashMap<>();
         colorSets.put("button", new LinkedHashSet<>());
         colorSets.put("background", new LinkedHashSet<>());
         colorSets.put("text", new LinkedHashSet<>());
+        return colorSets;
+    }
+
+    private static void mergeColorSets(Map<String, Set<String>> target, Map<String, Set<String>> source) {
+        source.forEach((type, colorSet) -> target.get(type).addAll(colorSet));
+    }
+
+    private void extractExternalCss(Document doc, Map<String, String> colors) {
+        Map<String, Set<String>> colorSets = newColorSets();
 
         // First extract colors from inline styles
+        long inlineStart = System.nanoTime();
         extractInlineStyles(doc, colorSets);
+        pipelineMetrics.record("extract-inline", inlineStart);
 
         // Then extract from external stylesheets
-        for (Element link : links) {
-            String cssUrl = link.absUrl("href");
-            if (!cssUrl.isEmpty()) {
-                try {
-                    String cssText = Jsoup.connect(cssUrl)
-                        .timeout(5000)
-                        .userAgent("Chrome/120.0.0.0")
-                        .ignoreContentType(true)
-                        .execute()
-                        .body();
-
-                    extractColorsByType(cssText, colorSets);
-                    /*log.info("Extracted Colors - Buttons: {}", colorSets.get("button"));
-                    log.info("Extracted Colors - Backgrounds: {}", colorSets.get("background"));
-                    log.info("Extracted Colors - Text: {}", colorSets.get("text"));*/
-
-                } catch (IOException e) {
-                    System.err.println("Failed to fetch CSS file: " + cssUrl);
-                }
+        for (String cssUrl : stylesheetUrls(doc)) {
+            // Stop fanning out once the request has been cancelled
+            if (Thread.currentThread().isInterrupted()) break;
+
+            try {
+                String cssText = fetchStylesheet(cssUrl);
+
+                long cssStart = System.nanoTime();
+                extractColorsByType(cssText, colorSets);
+                pipelineMetrics.record("extract-css", cssStart);
+                /*log.info("Extracted Colors - Buttons: {}", colorSets.get("button"));
+                log.info("Extracted Colors - Backgrounds: {}", colorSets.get("background"));
+                log.info("Extracted Colors - Text: {}", colorSets.get("text"));*/
+
+            } catch (OriginUnavailableException e) {
+                log.debug("Skipping CSS file from unavailable origin: {}", cssUrl);
+            } catch (IOException e) {
+                log.warn("Failed to fetch CSS file: {} ({})", cssUrl, e.getMessage());
             }
         }
 
+        addPrioritizedColors(colorSets, colors);
+    }
+
+    private void addPrioritizedColors(Map<String, Set<String>> colorSets, Map<String, String> colors) {
         // Add colors to final map with limits
+        long dedupeStart = System.nanoTime();
         addPrioritizedColors(colorSets.get("button"), colors, "button", 10);
         addPrioritizedColors(colorSets.get("background"), colors, "background", 15);
         addPrioritizedColors(colorSets.get("text"), colors, "text", 20);
+        pipelineMetrics.record("dedupe", dedupeStart);
     }
 
     private void extractInlineStyles(Document doc, Map<String, Set<String>> colorSets) {
@@ -169,7 +433,9 @@ public class WebScraperService {
             String bgColor = extractColorFromStyle(style, "background");
             String color = extractColorFromStyle(style, "color");
 
-            if (!bgColor.isEmpty()) colorSets.get("button").add(normalizeColor(bgColor));
+            if (!bgColor.isEmpty() && !CssBackgrounds.isGradientOrImage(bgColor)) {
+                colorSets.get("button").add(normalizeColor(bgColor));
+            }
             if (!color.isEmpty()) colorSets.get("text").add(normalizeColor(color));
         }
 
@@ -181,7 +447,10 @@ public class WebScraperService {
             String extractedBg = extractColorFromStyle(style, "background");
 
             if (!bgColor.isEmpty()) colorSets.get("background").add(normalizeColor(bgColor));
-            if (!extractedBg.isEmpty()) colorSets.get("background").add(normalizeColor(extractedBg));
+            // Gradients and images are resolved separately by extractBackgroundImages
+            if (!extractedBg.isEmpty() && !CssBackgrounds.isGradientOrImage(extractedBg)) {
+                colorSets.get("background").add(normalizeColor(extractedBg));
+            }
         }
 
         // Extract text colors
@@ -194,7 +463,7 @@ public class WebScraperService {
         }
     }
 
-    private void extractColorsByType(String cssText, Map<String, Set<String>> colorSets) {
+    void extractColorsByType(String cssText, Map<String, Set<String>> colorSets) {
         // Generic button selectors
         // Generic button selectors
         Pattern buttonPattern = Pattern.compile(
@@ -224,6 +493,15 @@ public class WebScraperService {
     private void extractMatchingColors(String cssText, Pattern pattern, Set<String> colorSet) {
         Matcher matcher = pattern.matcher(cssText);
         while (matcher.find()) {
+            // A gradient background contributes each of its stops
+            if (matcher.group(1).contains("gradient(")) {
+                for (int stop : CssBackgrounds.gradientStops(matcher.group(1))) {
+                    String color = CssBackgrounds.toHex(stop);
+                    if (!isGenericColor(color)) colorSet.add(color);
+                }
+                continue;
+            }
+
             String color = normalizeColor(matcher.group(1));
             if (isValidColor(color) && !isGenericColor(color)) {
                 colorSet.add(color);
@@ -246,7 +524,7 @@ public class WebScraperService {
         return matcher.find() ? matcher.group(1).trim() : "";
     }
 
-    private String normalizeColor(String color) {
+    String normalizeColor(String color) {
         if (color == null || color.isEmpty()) return "";
 
         color = color.toLowerCase().trim().replace("!important", "").trim();
@@ -314,7 +592,7 @@ public class WebScraperService {
                 color.matches("#0{3,6}") || color.equals("#000000");
     }
 
-    private void addPrioritizedColors(Set<String> colorSet, Map<String, String> colors, String prefix, int limit) {
+    void addPrioritizedColors(Set<String> colorSet, Map<String, String> colors, String prefix, int limit) {
         int count = 0;
         Set<String> addedColors = new HashSet<>();
 
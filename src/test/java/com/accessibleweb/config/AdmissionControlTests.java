@@ -0,0 +1,155 @@
+package com.accessibleweb.config;
+
+import com.accessibleweb.config.PriorityTaskExecutor.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTests {
+
+	@Test
+	void tokenBucketAllowsBurstThenRefillRate() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 2, 100);
+		long start = 0;
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals(0, limiter.tryAcquire("a", start));
+		}
+		long wait = limiter.tryAcquire("a", start);
+		assertEquals(TimeUnit.MILLISECONDS.toNanos(500), wait, TimeUnit.MILLISECONDS.toNanos(1));
+		assertEquals(0, limiter.tryAcquire("b", start), "clients have separate buckets");
+
+		assertEquals(0, limiter.tryAcquire("a", start + TimeUnit.MILLISECONDS.toNanos(500)));
+		assertTrue(limiter.tryAcquire("a", start + TimeUnit.MILLISECONDS.toNanos(600)) > 0);
+	}
+
+	@Test
+	void onlyConfiguredApiKeysGetTheirOwnBucket() throws Exception {
+		RateLimitInterceptor interceptor = new RateLimitInterceptor(new TokenBucketRateLimiter(1, 0.001, 100),
+				Set.of("partner-key"), new SimpleMeterRegistry());
+
+		assertTrue(interceptor.preHandle(request("random-1"), new MockHttpServletResponse(), null));
+		MockHttpServletResponse rotated = new MockHttpServletResponse();
+		assertFalse(interceptor.preHandle(request("random-2"), rotated, null), "unknown keys share the address bucket");
+		assertEquals(429, rotated.getStatus());
+
+		assertTrue(interceptor.preHandle(request("partner-key"), new MockHttpServletResponse(), null));
+		assertFalse(interceptor.preHandle(request("partner-key"), new MockHttpServletResponse(), null));
+	}
+
+	@Test
+	void runsInteractiveWorkAheadOfQueuedBatchWorkAndShedsWhenFull() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		PriorityTaskExecutor executor = new PriorityTaskExecutor(2, 2, registry);
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(4);
+		executor.initialize();
+
+		try {
+			CountDownLatch release = new CountDownLatch(1);
+			List<String> order = new CopyOnWriteArrayList<>();
+			executor.submit(Priority.INTERACTIVE, () -> awaitQuietly(release));
+
+			executor.submit(Priority.BATCH, () -> order.add("batch-1"));
+			executor.submit(Priority.BATCH, () -> order.add("batch-2"));
+			assertThrows(TaskRejectedException.class, () -> executor.submit(Priority.BATCH, () -> order.add("batch-3")),
+					"batch work is limited to its share of the queue");
+			executor.submit(Priority.INTERACTIVE, () -> order.add("interactive-1"));
+			Future<?> last = executor.submit(Priority.INTERACTIVE, () -> order.add("interactive-2"));
+			assertThrows(TaskRejectedException.class, () -> executor.submit(Priority.INTERACTIVE, () -> order.add("interactive-3")));
+
+			assertEquals(2, executor.queuedTasks(Priority.BATCH));
+			assertEquals(1.0, registry.get("colorblind.admission.rejections").tag("priority", "batch").counter().count());
+			assertEquals(1.0, registry.get("colorblind.admission.rejections").tag("priority", "interactive").counter().count());
+
+			release.countDown();
+			last.get(5, TimeUnit.SECONDS);
+			while (order.size() < 4) Thread.sleep(5);
+			assertEquals(List.of("interactive-1", "interactive-2", "batch-1", "batch-2"), order);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void capsConcurrentBatchWorkSoInteractiveRequestsKeepAWorker() throws Exception {
+		PriorityTaskExecutor executor = new PriorityTaskExecutor(10, 1, new SimpleMeterRegistry());
+		executor.setCorePoolSize(2);
+		executor.setMaxPoolSize(2);
+		executor.setQueueCapacity(10);
+		executor.initialize();
+
+		try {
+			CountDownLatch release = new CountDownLatch(1);
+			List<String> order = new CopyOnWriteArrayList<>();
+			executor.submit(Priority.BATCH, () -> {
+				awaitQuietly(release);
+				order.add("batch-1");
+			});
+			Future<?> heldBatch = executor.submit(Priority.BATCH, () -> order.add("batch-2"));
+
+			// The second worker is idle, but batch-2 waits for batch-1 instead of taking it
+			executor.submit(Priority.INTERACTIVE, () -> order.add("interactive")).get(5, TimeUnit.SECONDS);
+			assertEquals(List.of("interactive"), order);
+			assertEquals(1, executor.queuedTasks(Priority.BATCH));
+
+			release.countDown();
+			heldBatch.get(5, TimeUnit.SECONDS);
+			assertEquals(List.of("interactive", "batch-1", "batch-2"), order);
+			assertEquals(0, executor.queuedTasks(Priority.BATCH));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static MockHttpServletRequest request(String apiKey) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accessibility");
+		request.setRemoteAddr("203.0.113.7");
+		request.addHeader(RateLimitInterceptor.API_KEY_HEADER, apiKey);
+		return request;
+	}
+
+	@Test
+	void interactiveBurstDoesNotUseUpTheBatchShare() throws Exception {
+		PriorityTaskExecutor executor = new PriorityTaskExecutor(2, 2, new SimpleMeterRegistry());
+		executor.setCorePoolSize(1);
+		executor.setMaxPoolSize(1);
+		executor.setQueueCapacity(4);
+		executor.initialize();
+
+		try {
+			CountDownLatch release = new CountDownLatch(1);
+			executor.submit(Priority.INTERACTIVE, () -> awaitQuietly(release));
+			for (int i = 0; i < 3; i++) {
+				executor.submit(Priority.INTERACTIVE, () -> { });
+			}
+			assertEquals(3, executor.queuedTasks(Priority.INTERACTIVE));
+
+			Future<?> batch = executor.submit(Priority.BATCH, () -> { });
+			release.countDown();
+			batch.get(5, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.accessibleweb.model;
+
+import java.util.List;
+import java.util.Map;
+
+// Hand-built analysis results for tests that don't need a scraped page
+public final class AnalysisResultFixtures {
+
+	private AnalysisResultFixtures() {}
+
+	// A 21:1 result; the primary colors are the first background and the first text color
+	public static AnalysisResult passingResult(String rating, List<String> backgrounds, List<String> textColors) {
+		return new AnalysisResult("default",
+				new AnalysisResult.ColorAnalysis(
+						new AnalysisResult.PrimaryColors(
+								new AnalysisResult.ColorInfo(backgrounds.get(0), "explicit"),
+								new AnalysisResult.ColorInfo(textColors.get(0), "explicit")),
+						new AnalysisResult.Contrast(21.0, rating, new AnalysisResult.Requirements(true, true, true)),
+						null),
+				new AnalysisResult.Accessibility("Good", List.of(), new AnalysisResult.Checks(true, true, "exceeds")),
+				new AnalysisResult.ColorGroups(backgrounds, textColors, List.of(), List.of()),
+				null);
+	}
+
+	public static AnalysisResult passingResult(String rating) {
+		return passingResult(rating, List.of("#ffffff"), List.of("#000000"));
+	}
+
+	// What a page with no extractable colors produces: default primary colors and no palette
+	public static AnalysisResult emptyResult() {
+		return new AnalysisResult("default",
+				new AnalysisResult.ColorAnalysis(
+						new AnalysisResult.PrimaryColors(
+								new AnalysisResult.ColorInfo("#FFFFFF", "derived"),
+								new AnalysisResult.ColorInfo("#000000", "derived")),
+						new AnalysisResult.Contrast(21.0, "AAA", new AnalysisResult.Requirements(true, true, true)),
+						null),
+				new AnalysisResult.Accessibility("Excellent", List.of(), new AnalysisResult.Checks(true, true, "exceeds")),
+				new AnalysisResult.ColorGroups(List.of(), List.of(), List.of(), List.of()),
+				null);
+	}
+
+	// #999999 text on #ffffff (2.85:1) with a suggested replacement
+	public static AnalysisResult failingResult(List<String> otherColors, Map<String, Double> timings) {
+		return new AnalysisResult("default",
+				new AnalysisResult.ColorAnalysis(
+						new AnalysisResult.PrimaryColors(
+								new AnalysisResult.ColorInfo("#ffffff", "explicit"),
+								new AnalysisResult.ColorInfo("#999999", "explicit")),
+						new AnalysisResult.Contrast(2.85, "Fail", new AnalysisResult.Requirements(false, false, false)),
+						new ColorSuggestion("#999999", "#595959", "#ffffff", 2.85, 7.0, 24.3, true)),
+				new AnalysisResult.Accessibility("Needs Improvement", List.of(),
+						new AnalysisResult.Checks(true, true, "fails")),
+				new AnalysisResult.ColorGroups(List.of("#ffffff"), List.of("#999999"), List.of(), otherColors),
+				timings);
+	}
+}
@@ -0,0 +1,48 @@
+package com.accessibleweb.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.accessibleweb.model.AnalysisResultFixtures.failingResult;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisResultSerializerTests {
+
+	private final ObjectMapper json = JsonMapper.builder().findAndAddModules().build();
+
+	@Test
+	void writesTheSameShapeAsTheMapBasedResponse() throws Exception {
+		JsonNode node = json.readTree(json.writeValueAsBytes(failingResult(List.of(), null)));
+
+		assertEquals("#ffffff", node.at("/colorAnalysis/primaryColors/background/value").asText());
+		assertEquals("explicit", node.at("/colorAnalysis/primaryColors/text/source").asText());
+		assertEquals(2.85, node.at("/colorAnalysis/contrast/ratio").asDouble());
+		assertFalse(node.at("/colorAnalysis/contrast/meetsRequirements/AA").asBoolean());
+		assertEquals("#595959", node.at("/colorAnalysis/suggestion/suggested").asText());
+		assertEquals("fails", node.at("/accessibility/checks/minimumContrast").asText());
+		assertEquals(List.of("backgrounds", "textColors", "buttons"), fieldNames(node.get("rawData")));
+		assertFalse(node.has("timings"));
+	}
+
+	@Test
+	void readsBackFromJsonAndCbor() throws Exception {
+		AnalysisResult result = failingResult(List.of("#ff0000"), Map.of("scrape", 12.5));
+		ObjectMapper cbor = CBORMapper.builder().findAndAddModules().build();
+
+		assertEquals(result, json.readValue(json.writeValueAsBytes(result), AnalysisResult.class));
+		assertEquals(result, cbor.readValue(cbor.writeValueAsBytes(result), AnalysisResult.class));
+	}
+
+	private static List<String> fieldNames(JsonNode node) {
+		List<String> names = new ArrayList<>();
+		node.fieldNames().forEachRemaining(names::add);
+		return names;
+	}
+}
@@ -0,0 +1,137 @@
+package com.accessibleweb.repository;
+
+import com.accessibleweb.model.AnalysisRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamoDbAnalysisHistoryStoreTests {
+
+	private static final String TABLE = "analysis-history";
+
+	private final StubDynamoDb dynamoDb = new StubDynamoDb();
+	private DynamoDbAnalysisHistoryStore store;
+
+	@AfterEach
+	void tearDown() {
+		if (store != null) store.close();
+	}
+
+	@Test
+	void writesFullBatchesOffTheCallerThreadAndRetriesUnprocessedItems() throws Exception {
+		store = new DynamoDbAnalysisHistoryStore(() -> dynamoDb, TABLE, false, 60000, 1000, new ObjectMapper());
+		dynamoDb.unprocessedOnFirstCall = 5;
+
+		for (int i = 0; i < 24; i++) store.append(record("https://example.com", i, "AA"));
+		assertTrue(dynamoDb.batchCalls.isEmpty(), "a partial batch waits for the flusher");
+
+		store.append(record("https://example.com", 24, "AA"));
+		for (int i = 0; i < 200 && dynamoDb.items.size() < 25; i++) Thread.sleep(10);
+
+		assertEquals(List.of(25, 5), dynamoDb.batchSizes());
+		assertTrue(dynamoDb.batchCalls.stream().allMatch(call -> call.thread().equals("history-flusher")));
+		assertEquals(25, dynamoDb.items.size());
+
+		for (int i = 25; i < 30; i++) store.append(record("https://example.com", i, "AA"));
+		store.flush();
+		assertEquals(List.of(25, 5, 5), dynamoDb.batchSizes());
+		assertEquals(30, dynamoDb.items.size());
+	}
+
+	@Test
+	void readsMergeBufferedWritesWithStoredItems() {
+		store = new DynamoDbAnalysisHistoryStore(() -> dynamoDb, TABLE, false, 60000, 1000, new ObjectMapper());
+		store.append(record("https://example.com", 1000, "Fail"));
+		store.flush();
+
+		store.append(record("https://example.com", 2000, "AAA"));
+		store.append(record("https://other.org", 3000, "AA"));
+
+		assertEquals("AAA", store.latest("https://example.com", Map.class).orElseThrow().result().get("rating"));
+		List<AnalysisRecord<Map>> range = store.range("https://example.com", Instant.EPOCH, Instant.ofEpochMilli(5000), Map.class);
+		assertEquals(List.of("Fail", "AAA"), range.stream().map(r -> r.result().get("rating")).toList());
+		assertEquals(1, dynamoDb.batchCalls.size(), "reads don't force a flush");
+	}
+
+	@Test
+	void dropsAppendsBeyondThePendingCapUntilTheBufferDrains() {
+		store = new DynamoDbAnalysisHistoryStore(() -> dynamoDb, TABLE, false, 60000, 3, new ObjectMapper());
+
+		for (int i = 0; i < 5; i++) store.append(record("https://example.com", i, "AA"));
+		assertEquals(3, store.range("https://example.com", Instant.EPOCH, Instant.ofEpochMilli(10), Map.class).size());
+
+		store.flush();
+		store.append(record("https://example.com", 5, "AA"));
+		store.flush();
+		assertEquals(4, dynamoDb.items.size());
+	}
+
+	private static AnalysisRecord<Map<String, String>> record(String url, long timestamp, String rating) {
+		return new AnalysisRecord<>(url, Instant.ofEpochMilli(timestamp), Map.of("rating", rating));
+	}
+
+	// Keeps items in memory and can leave part of the first batch unprocessed, as DynamoDB does under throttling
+	private static class StubDynamoDb implements DynamoDbClient {
+
+		record BatchCall(String thread, int size) {}
+
+		final List<BatchCall> batchCalls = new CopyOnWriteArrayList<>();
+		final Map<String, Map<String, AttributeValue>> items = Collections.synchronizedMap(new TreeMap<>());
+		volatile int unprocessedOnFirstCall;
+
+		List<Integer> batchSizes() {
+			return batchCalls.stream().map(BatchCall::size).toList();
+		}
+
+		@Override
+		public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+			List<WriteRequest> writes = request.requestItems().get(TABLE);
+			batchCalls.add(new BatchCall(Thread.currentThread().getName(), writes.size()));
+
+			int unprocessed = batchCalls.size() == 1 ? unprocessedOnFirstCall : 0;
+			List<WriteRequest> processed = writes.subList(0, writes.size() - unprocessed);
+			for (WriteRequest write : processed) {
+				Map<String, AttributeValue> item = write.putRequest().item();
+				items.put(item.get("url").s() + ' ' + String.format("%020d", Long.parseLong(item.get("ts").n())), item);
+			}
+			return BatchWriteItemResponse.builder()
+					.unprocessedItems(unprocessed == 0 ? Map.of() : Map.of(TABLE, writes.subList(processed.size(), writes.size())))
+					.build();
+		}
+
+		@Override
+		public QueryResponse query(QueryRequest request) {
+			String url = request.expressionAttributeValues().get(":url").s();
+			AttributeValue from = request.expressionAttributeValues().get(":from");
+			AttributeValue to = request.expressionAttributeValues().get(":to");
+			List<Map<String, AttributeValue>> matches;
+			synchronized (items) {
+				matches = new ArrayList<>(items.values().stream()
+						.filter(item -> item.get("url").s().equals(url))
+						.filter(item -> from == null || Long.parseLong(item.get("ts").n()) >= Long.parseLong(from.n()))
+						.filter(item -> to == null || Long.parseLong(item.get("ts").n()) <= Long.parseLong(to.n()))
+						.toList());
+			}
+			if (Boolean.FALSE.equals(request.scanIndexForward())) Collections.reverse(matches);
+			if (request.limit() != null && matches.size() > request.limit()) matches = matches.subList(0, request.limit());
+			return QueryResponse.builder().items(matches).build();
+		}
+
+		@Override
+		public String serviceName() {
+			return "dynamodb";
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.accessibleweb.repository;
+
+import com.accessibleweb.model.AnalysisRecord;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalAnalysisHistoryStoreTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void returnsLatestResultAndTimeRangePerUrl() throws Exception {
+		LocalAnalysisHistoryStore store = new LocalAnalysisHistoryStore(directory, 1 << 16, 0, new ObjectMapper());
+
+		store.append(record("https://example.com", 1000, "Fail"));
+		store.append(record("https://example.com", 3000, "AAA"));
+		store.append(record("https://example.com", 2000, "AA"));
+		store.append(record("https://other.org", 5000, "AA"));
+
+		assertEquals(Instant.ofEpochMilli(3000), store.latest("https://example.com", Map.class).orElseThrow().timestamp());
+		assertEquals("AAA", store.latest("https://example.com", Map.class).orElseThrow().result().get("rating"));
+		assertTrue(store.latest("https://missing.org", Map.class).isEmpty());
+
+		List<AnalysisRecord<Map>> range = store.range("https://example.com", Instant.ofEpochMilli(1500), Instant.ofEpochMilli(3000), Map.class);
+		assertEquals(List.of("AA", "AAA"), range.stream().map(r -> r.result().get("rating")).toList());
+	}
+
+	@Test
+	void rebuildsIndexFromSegmentsOnRestart() throws Exception {
+		LocalAnalysisHistoryStore store = new LocalAnalysisHistoryStore(directory, 1024, 0, new ObjectMapper());
+		for (int i = 0; i < 40; i++) {
+			store.append(record("https://example.com/page" + (i % 4), i, "AA"));
+		}
+		store.close();
+		assertTrue(Files.list(directory).count() > 1, "small segments should have rolled over");
+
+		LocalAnalysisHistoryStore reopened = new LocalAnalysisHistoryStore(directory, 1024, 0, new ObjectMapper());
+		assertEquals(Instant.ofEpochMilli(39), reopened.latest("https://example.com/page3", Map.class).orElseThrow().timestamp());
+		assertEquals(10, reopened.range("https://example.com/page0", Instant.EPOCH, Instant.ofEpochMilli(100), Map.class).size());
+
+		// Appends continue after the recovered tail without clobbering it
+		reopened.append(record("https://example.com/page0", 100, "AAA"));
+		assertEquals(11, reopened.range("https://example.com/page0", Instant.EPOCH, Instant.ofEpochMilli(100), Map.class).size());
+	}
+
+	@Test
+	void reopensSegmentsAtTheirOwnSizeAfterTheSettingChanges() throws Exception {
+		LocalAnalysisHistoryStore store = new LocalAnalysisHistoryStore(directory, 1024, 0, new ObjectMapper());
+		for (int i = 0; i < 20; i++) {
+			store.append(record("https://example.com", i, "AA"));
+		}
+		store.close();
+
+		LocalAnalysisHistoryStore reopened = new LocalAnalysisHistoryStore(directory, 4096, 0, new ObjectMapper());
+		assertEquals(20, reopened.range("https://example.com", Instant.EPOCH, Instant.ofEpochMilli(100), Map.class).size());
+		for (int i = 20; i < 40; i++) {
+			reopened.append(record("https://example.com", i, "AAA"));
+		}
+		reopened.close();
+
+		LocalAnalysisHistoryStore again = new LocalAnalysisHistoryStore(directory, 1024, 0, new ObjectMapper());
+		assertEquals(40, again.range("https://example.com", Instant.EPOCH, Instant.ofEpochMilli(100), Map.class).size());
+		assertEquals("AAA", again.latest("https://example.com", Map.class).orElseThrow().result().get("rating"));
+	}
+
+	@Test
+	void deletesTheOldestSegmentsPastTheRetentionLimit() throws Exception {
+		LocalAnalysisHistoryStore store = new LocalAnalysisHistoryStore(directory, 1024, 2, new ObjectMapper());
+		for (int i = 0; i < 100; i++) {
+			store.append(record("https://example.com/page" + (i % 2), i, "AA"));
+		}
+		store.append(record("https://old.example.com", 100, "AA"));
+		for (int i = 101; i < 200; i++) {
+			store.append(record("https://example.com/page" + (i % 2), i, "AA"));
+		}
+
+		try (Stream<Path> files = Files.list(directory)) {
+			assertEquals(2, files.count());
+		}
+		assertTrue(store.latest("https://old.example.com", Map.class).isEmpty(), "records in deleted segments are gone");
+		List<AnalysisRecord<Map>> kept = store.range("https://example.com/page1", Instant.EPOCH, Instant.ofEpochMilli(200), Map.class);
+		assertEquals(Instant.ofEpochMilli(199), kept.get(kept.size() - 1).timestamp());
+		assertTrue(kept.get(0).timestamp().isAfter(Instant.ofEpochMilli(1)));
+
+		store.close();
+		LocalAnalysisHistoryStore reopened = new LocalAnalysisHistoryStore(directory, 1024, 2, new ObjectMapper());
+		assertEquals(kept.size(), reopened.range("https://example.com/page1", Instant.EPOCH, Instant.ofEpochMilli(200), Map.class).size());
+	}
+
+	@Test
+	void rewritingTheSameKeyReplacesTheEarlierResult() throws Exception {
+		LocalAnalysisHistoryStore store = new LocalAnalysisHistoryStore(directory, 1 << 16, 0, new ObjectMapper());
+
+		store.append(record("https://example.com", 1000, "Fail"));
+		store.append(record("https://example.com", 1000, "AA"));
+
+		List<AnalysisRecord<Map>> range = store.range("https://example.com", Instant.EPOCH, Instant.ofEpochMilli(1000), Map.class);
+		assertEquals(1, range.size());
+		assertEquals("AA", range.get(0).result().get("rating"));
+	}
+
+	private static AnalysisRecord<Map<String, String>> record(String url, long timestamp, String rating) {
+		return new AnalysisRecord<>(url, Instant.ofEpochMilli(timestamp), Map.of("rating", rating));
+	}
+}
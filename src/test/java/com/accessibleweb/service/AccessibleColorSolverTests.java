@@ -0,0 +1,64 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.ColorSuggestion;
+import com.accessibleweb.service.AccessibleColorSolver.Vision;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessibleColorSolverTests {
+
+	private final AccessibleColorSolver solver = new AccessibleColorSolver();
+
+	@Test
+	void movesFailingColorJustPastTheTargetKeepingItsHue() {
+		ColorSuggestion suggestion = solver.suggest("#6fa8dc", "#ffffff", 4.5).orElseThrow();
+
+		assertTrue(suggestion.changed());
+		assertTrue(suggestion.meetsTarget());
+		assertTrue(suggestion.ratio() >= 4.5 && suggestion.ratio() < 4.7, "should stop near the threshold: " + suggestion);
+		int[] rgb = AccessibleColorSolver.parseHex(suggestion.suggested());
+		assertTrue(AccessibleColorSolver.contrast(rgb, new int[]{255, 255, 255}) >= 4.5);
+		assertEquals(hue("#6fa8dc"), hue(suggestion.suggested()), 3.0);
+	}
+
+	@Test
+	void picksTheCloserDirectionAndLeavesPassingColorsAlone() {
+		ColorSuggestion onDark = solver.suggest("#404060", "#101010", 7.0).orElseThrow();
+		assertTrue(AccessibleColorSolver.toLab(AccessibleColorSolver.parseHex(onDark.suggested()))[0]
+				> AccessibleColorSolver.toLab(AccessibleColorSolver.parseHex("#404060"))[0], "should lighten on a dark background");
+
+		ColorSuggestion passing = solver.suggest("#000", "#fff", 7.0).orElseThrow();
+		assertFalse(passing.changed());
+		assertEquals(0, passing.deltaE());
+
+		assertTrue(solver.suggest("rgb(1,2,3)", "#fff", 4.5).isEmpty());
+	}
+
+	@Test
+	void meetsTargetUnderSimulatedColorblindness() {
+		int[] background = AccessibleColorSolver.parseHex("#2e7d32");
+		ColorSuggestion suggestion = solver.suggest("#e53935", "#2e7d32", 4.5, EnumSet.allOf(Vision.class)).orElseThrow();
+
+		assertTrue(suggestion.meetsTarget());
+		int[] rgb = AccessibleColorSolver.parseHex(suggestion.suggested());
+		for (Vision vision : Vision.values()) {
+			assertTrue(AccessibleColorSolver.simulatedContrast(rgb, background, vision) >= 4.5, vision.name());
+		}
+	}
+
+	@Test
+	void fallsBackToStrongestContrastWhenTargetIsUnreachable() {
+		ColorSuggestion suggestion = solver.suggest("#808080", "#777777", 7.0).orElseThrow();
+
+		assertFalse(suggestion.meetsTarget());
+		assertEquals("#000000", suggestion.suggested());
+	}
+
+	private static double hue(String hex) {
+		double[] lab = AccessibleColorSolver.toLab(AccessibleColorSolver.parseHex(hex));
+		return Math.toDegrees(Math.atan2(lab[2], lab[1]));
+	}
+}
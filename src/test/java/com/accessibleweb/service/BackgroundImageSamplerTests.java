@@ -0,0 +1,202 @@
+package com.accessibleweb.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundImageSamplerTests {
+
+	private final AtomicInteger fetches = new AtomicInteger();
+	private final FakeSampler sampler = new FakeSampler();
+
+	@AfterEach
+	void tearDown() {
+		sampler.close();
+	}
+
+	@Test
+	void samplesDominantAndWorstCaseColorsAndCachesByUrl() throws Exception {
+		sampler.image = bannerPng();
+
+		Map<String, BackgroundImageSampler.Palette> palettes = sampler.sampleAll(List.of("https://example.com/hero.png"));
+		BackgroundImageSampler.Palette palette = palettes.get("https://example.com/hero.png");
+
+		assertEquals("#1e40af", palette.dominant());
+		assertEquals("#ffffff", palette.lightest());
+		assertEquals("#1e40af", palette.darkest());
+		assertEquals(palettes, sampler.sampleAll(List.of("https://example.com/hero.png")));
+		assertEquals(1, fetches.get());
+	}
+
+	@Test
+	void leavesOutImagesThatFailToLoadOrDecode() throws Exception {
+		sampler.image = bannerPng();
+
+		Map<String, BackgroundImageSampler.Palette> palettes = sampler.sampleAll(
+				List.of("https://example.com/missing.png", "https://example.com/hero.png", "https://example.com/icon.svg"));
+
+		assertEquals(List.of("https://example.com/hero.png"), List.copyOf(palettes.keySet()));
+	}
+
+	@Test
+	void onlyFetchesImagesOnAllowedPublicHosts() throws Exception {
+		sampler.image = bannerPng();
+
+		Map<String, BackgroundImageSampler.Palette> palettes = sampler.sampleAll(List.of(
+				"https://evil.net/hero.png", "https://example.com.evil.net/hero.png", "https://cdn.example.com/hero.png"));
+
+		assertEquals(List.of("https://cdn.example.com/hero.png"), List.copyOf(palettes.keySet()));
+		assertEquals(1, fetches.get());
+		assertFalse(sampler.isAllowedHost("https://anything.org/hero.png"), "bare TLD entries are ignored");
+
+		// An allowed host that resolves to a private address is never contacted
+		AtomicInteger hits = new AtomicInteger();
+		HttpServer origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		origin.createContext("/", exchange -> {
+			hits.incrementAndGet();
+			exchange.sendResponseHeaders(200, -1);
+			exchange.close();
+		});
+		origin.start();
+		BackgroundImageSampler loopbackAllowed = ScraperFixtures.sampler(ScraperFixtures.pipeline(new SimpleMeterRegistry()), "127.0.0.1");
+		try {
+			String url = "http://127.0.0.1:" + origin.getAddress().getPort() + "/hero.png";
+			assertTrue(loopbackAllowed.sampleAll(List.of(url)).isEmpty());
+			assertThrows(IOException.class, () -> loopbackAllowed.fetchImage(url));
+			assertEquals(0, hits.get());
+		} finally {
+			loopbackAllowed.close();
+			origin.stop(0);
+		}
+	}
+
+	@Test
+	void connectsToTheAddressItCheckedAndSendsTheOriginalHost() throws Exception {
+		byte[] png = bannerPng();
+		List<String> hostHeaders = new CopyOnWriteArrayList<>();
+		HttpServer origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		origin.createContext("/", exchange -> {
+			hostHeaders.add(exchange.getRequestHeaders().getFirst("Host"));
+			exchange.sendResponseHeaders(200, png.length);
+			exchange.getResponseBody().write(png);
+			exchange.close();
+		});
+		origin.start();
+		// The name doesn't exist in DNS, so the fetch only works if it uses the address that was checked
+		PinnedSampler pinned = new PinnedSampler();
+		try {
+			String url = "http://images.example.invalid:" + origin.getAddress().getPort() + "/hero.png";
+
+			assertEquals("#1e40af", pinned.sampleAll(List.of(url)).get(url).dominant());
+			assertEquals(List.of("images.example.invalid:" + origin.getAddress().getPort()), hostHeaders);
+			assertEquals(1, pinned.lookups.get());
+		} finally {
+			pinned.close();
+			origin.stop(0);
+		}
+	}
+
+	@Test
+	void samplingStopsAtTheRequestDeadline() throws Exception {
+		HttpServer origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		origin.createContext("/", exchange -> {
+			try {
+				Thread.sleep(3000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			exchange.sendResponseHeaders(500, -1);
+			exchange.close();
+		});
+		origin.start();
+		PinnedSampler pinned = new PinnedSampler();
+		try {
+			String url = "http://images.example.invalid:" + origin.getAddress().getPort() + "/slow.png";
+			long start = System.currentTimeMillis();
+
+			Map<String, BackgroundImageSampler.Palette> palettes = pinned.tracker.callWithDeadline(start + 300,
+					() -> pinned.sampleAll(List.of(url)));
+
+			assertTrue(palettes.isEmpty());
+			assertTrue(System.currentTimeMillis() - start < 1500, "the 5s image timeout gives way to the request deadline");
+		} finally {
+			pinned.close();
+			origin.stop(0);
+		}
+	}
+
+	// Mostly blue, with a white stripe across the middle
+	private static byte[] bannerPng() throws IOException {
+		BufferedImage image = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(new Color(0x1e40af));
+		graphics.fillRect(0, 0, 400, 300);
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 120, 400, 60);
+		graphics.dispose();
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	// Resolves every host to loopback and treats it as public, standing in for a public CDN
+	private static class PinnedSampler extends ScraperFixtures.Sampler {
+
+		private final AtomicInteger lookups = new AtomicInteger();
+		private final OriginHealthTracker tracker;
+
+		PinnedSampler() {
+			this(ScraperFixtures.pipeline(new SimpleMeterRegistry()));
+		}
+
+		private PinnedSampler(ScraperFixtures.Pipeline pipeline) {
+			super(pipeline, "example.invalid");
+			this.tracker = pipeline.tracker();
+		}
+
+		@Override
+		InetAddress[] resolve(String host) throws UnknownHostException {
+			lookups.incrementAndGet();
+			return new InetAddress[]{InetAddress.getByName("127.0.0.1")};
+		}
+
+		@Override
+		boolean isPublicAddress(InetAddress address) {
+			return true;
+		}
+	}
+
+	private class FakeSampler extends ScraperFixtures.Sampler {
+
+		private byte[] image;
+
+		FakeSampler() {
+			super(ScraperFixtures.pipeline(new SimpleMeterRegistry()), "example.com", "org");
+		}
+
+		@Override
+		byte[] fetchImage(String url) throws IOException {
+			fetches.incrementAndGet();
+			if (url.endsWith("missing.png")) throw new IOException("404");
+			if (url.endsWith(".svg")) return "<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes();
+			return image;
+		}
+	}
+}
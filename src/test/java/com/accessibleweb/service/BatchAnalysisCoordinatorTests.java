@@ -0,0 +1,138 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.BatchShard;
+import com.accessibleweb.model.BatchStatus;
+import com.accessibleweb.model.ShardResult;
+import com.accessibleweb.repository.LocalAnalysisHistoryStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.accessibleweb.model.AnalysisResultFixtures.passingResult;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BatchAnalysisCoordinatorTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void retriesFailedShardsAndUrlsUntilTheBatchCompletes() throws Exception {
+		Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+		Set<String> flakyUrls = ConcurrentHashMap.newKeySet();
+		flakyUrls.add("https://example.com/7");
+
+		ShardInvoker invoker = shard -> {
+			int attempt = attempts.computeIfAbsent(shard.index(), i -> new AtomicInteger()).incrementAndGet();
+			// Shard 0 is lost once; one url in shard 1 fails on its first analysis
+			if (shard.index() == 0 && attempt == 1) {
+				return CompletableFuture.failedFuture(new IllegalStateException("worker crashed"));
+			}
+			Map<String, AnalysisResult> results = new LinkedHashMap<>();
+			Map<String, String> failures = new LinkedHashMap<>();
+			for (String url : shard.urls()) {
+				if (flakyUrls.remove(url)) failures.put(url, "timeout");
+				else results.put(url, passingResult("AA"));
+			}
+			return CompletableFuture.completedFuture(new ShardResult(shard.batchId(), shard.index(), results, failures));
+		};
+
+		BatchAnalysisCoordinator coordinator = new BatchAnalysisCoordinator(invoker, 5, 3, 1, 10);
+		List<String> urls = new ArrayList<>();
+		for (int i = 0; i < 12; i++) urls.add("https://example.com/" + i);
+
+		String batchId = coordinator.submit(urls, "strict");
+		BatchStatus status = awaitCompletion(coordinator, batchId);
+
+		assertEquals("COMPLETED", status.status());
+		assertEquals(3, status.shards());
+		assertEquals(2, status.retries());
+		assertEquals(12, status.results().size());
+		assertTrue(status.failures().isEmpty());
+	}
+
+	@Test
+	void reportsUrlsThatStillFailAfterTheLastAttempt() throws Exception {
+		ShardInvoker invoker = shard -> CompletableFuture.failedFuture(new IllegalStateException("no workers"));
+		BatchAnalysisCoordinator coordinator = new BatchAnalysisCoordinator(invoker, 2, 2, 1, 10);
+
+		String batchId = coordinator.submit(List.of("https://example.com/a", "https://example.com/b", "https://example.com/a"), null);
+		BatchStatus status = awaitCompletion(coordinator, batchId);
+
+		assertEquals("COMPLETED_WITH_FAILURES", status.status());
+		assertEquals(1, status.shards());
+		assertEquals(Set.of("https://example.com/a", "https://example.com/b"), status.failures().keySet());
+	}
+
+	@Test
+	void workerSkipsUrlsAlreadyStoredForTheBatch() throws Exception {
+		ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+		LocalAnalysisHistoryStore store = new LocalAnalysisHistoryStore(directory, 1 << 16, 0, objectMapper);
+		ColorService colorService = mock(ColorService.class);
+		when(colorService.analyzeAccessibility(anyString(), eq("default")))
+				.thenReturn(passingResult("AA"))
+				.thenThrow(new IllegalStateException("origin down"))
+				.thenReturn(passingResult("AAA"));
+
+		ShardWorker worker = new ShardWorker(colorService, store);
+		BatchShard shard = new BatchShard("batch", 0, Instant.ofEpochMilli(1000), "default",
+				List.of("https://example.com/a", "https://example.com/b"));
+
+		ShardResult first = worker.run(shard);
+		assertEquals(Set.of("https://example.com/a"), first.results().keySet());
+		assertEquals(Set.of("https://example.com/b"), first.failures().keySet());
+
+		ShardResult retry = worker.run(shard);
+		assertTrue(retry.failures().isEmpty());
+		assertEquals(passingResult("AA"), retry.results().get("https://example.com/a"));
+		assertEquals(passingResult("AAA"), retry.results().get("https://example.com/b"));
+
+		verify(colorService, times(3)).analyzeAccessibility(anyString(), eq("default"));
+		assertEquals(1, store.range("https://example.com/a", Instant.EPOCH, Instant.ofEpochMilli(5000), AnalysisResult.class).size());
+	}
+
+	@Test
+	void workerReportsAFailedFetchInsteadOfStoringDefaultColors() throws Exception {
+		ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+		LocalAnalysisHistoryStore store = new LocalAnalysisHistoryStore(directory, 1 << 16, 0, objectMapper);
+		ScraperFixtures.Pipeline pipeline = ScraperFixtures.pipeline(new SimpleMeterRegistry());
+		WebScraperService scraper = new WebScraperService(pipeline.tracker(), pipeline.metrics(), pipeline.cache(),
+				ScraperFixtures.sampler(pipeline, "example.com")) {
+			@Override
+			Document fetchPage(String url) throws IOException {
+				throw new IOException("Connection refused");
+			}
+		};
+
+		ShardWorker worker = new ShardWorker(new ColorService(scraper, pipeline.metrics(), pipeline.cache(), new AccessibleColorSolver()), store);
+		ShardResult result = worker.run(new BatchShard("batch", 0, Instant.ofEpochMilli(1000), "default",
+				List.of("https://example.com/down")));
+
+		assertTrue(result.results().isEmpty());
+		assertTrue(result.failures().get("https://example.com/down").contains("Connection refused"));
+		assertTrue(store.range("https://example.com/down", Instant.EPOCH, Instant.ofEpochMilli(5000), AnalysisResult.class).isEmpty());
+	}
+
+	private static BatchStatus awaitCompletion(BatchAnalysisCoordinator coordinator, String batchId) throws InterruptedException {
+		for (int i = 0; i < 200; i++) {
+			BatchStatus status = coordinator.status(batchId).orElseThrow();
+			if (!"RUNNING".equals(status.status())) return status;
+			Thread.sleep(10);
+		}
+		fail("batch did not finish");
+		return null;
+	}
+}
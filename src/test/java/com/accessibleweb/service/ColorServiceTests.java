@@ -0,0 +1,38 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ColorServiceTests {
+
+	@Test
+	void imageExtremesOnlyFeedTheWorstCaseWarning() {
+		Map<String, String> colors = new LinkedHashMap<>();
+		colors.put("background-image-0", "#1e40af");
+		colors.put("background-image-0-lightest", "#ffffff");
+		colors.put("background-image-0-darkest", "#0a0a0a");
+		colors.put("text-0", "#ffffff");
+
+		WebScraperService scraper = mock(WebScraperService.class);
+		when(scraper.extractColors("https://example.com", false)).thenReturn(colors);
+		ColorService colorService = new ColorService(scraper, new PipelineMetrics(new SimpleMeterRegistry(), 100),
+				new IncrementalAuditCache(100, 60000), new AccessibleColorSolver());
+
+		AnalysisResult result = colorService.analyzeAccessibility("https://example.com", "default");
+
+		assertEquals("#1e40af", result.colorAnalysis().primaryColors().background().value());
+		assertEquals("AAA", result.colorAnalysis().contrast().rating());
+		assertEquals(List.of("#1e40af"), result.rawData().backgrounds());
+		assertTrue(result.rawData().other().isEmpty());
+		assertTrue(result.accessibility().warnings().stream()
+				.anyMatch(warning -> warning.startsWith("Text over background images or gradients drops to 1.0:1")));
+	}
+}
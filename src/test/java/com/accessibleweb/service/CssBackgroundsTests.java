@@ -0,0 +1,43 @@
+package com.accessibleweb.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CssBackgroundsTests {
+
+	@Test
+	void readsGradientStopsInAnySyntax() {
+		int[] stops = CssBackgrounds.gradientStops(
+				"linear-gradient(to right, #fff 0%, rgba(0, 0, 0, 0.5) 50%, hsl(240 100% 50%), transparent 100%)");
+
+		assertArrayEquals(new int[]{0xffffffff, 0x80000000, 0xff0000ff}, stops);
+		assertArrayEquals(new int[]{0xffff0000, 0xff000080, 0xffffa500},
+				CssBackgrounds.gradientStops("repeating-radial-gradient(circle at center, red, navy 10px), conic-gradient(from 90deg, #ffa500)"));
+		assertEquals(0, CssBackgrounds.gradientStops("url(hero.png) no-repeat").length);
+	}
+
+	@Test
+	void findsDeclarationsAndResolvesImageUrls() {
+		List<String> declarations = CssBackgrounds.declarations(
+				".hero { background: url('img/hero.jpg') center / cover; color: #fff } .x { background-color: #000 }");
+
+		assertEquals(List.of("url('img/hero.jpg') center / cover"), declarations);
+		assertEquals(List.of("https://example.com/site/img/hero.jpg", "https://cdn.example.com/bg.png"),
+				CssBackgrounds.imageUrls(declarations.get(0) + ", url(https://cdn.example.com/bg.png), url(data:image/png;base64,AAAA)",
+						"https://example.com/site/index.html"));
+	}
+
+	@Test
+	void parsesCssColors() {
+		assertEquals(0xffaabbcc, CssBackgrounds.parseColor("#abc"));
+		assertEquals(0x80112233, CssBackgrounds.parseColor("#11223380"));
+		assertEquals(0xff336699, CssBackgrounds.parseColor("rgb(20%, 40%, 60%)"));
+		assertEquals(0xff008000, CssBackgrounds.parseColor("Green"));
+		assertEquals(0, CssBackgrounds.parseColor("transparent"));
+		assertNull(CssBackgrounds.parseColor("#12345"));
+		assertNull(CssBackgrounds.parseColor("currentColor"));
+	}
+}
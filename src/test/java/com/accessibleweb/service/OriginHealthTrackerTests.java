@@ -0,0 +1,193 @@
+package com.accessibleweb.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OriginHealthTrackerTests {
+
+	private HttpServer origin;
+	private String baseUrl;
+	private final AtomicInteger hits = new AtomicInteger();
+
+	// Fake origin: /ok answers immediately, /error answers 503, /slow stalls for two seconds
+	@BeforeEach
+	void startOrigin() throws IOException {
+		origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		origin.createContext("/ok", exchange -> respond(exchange, 200));
+		origin.createContext("/error", exchange -> respond(exchange, 503));
+		origin.createContext("/slow", exchange -> {
+			try {
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			respond(exchange, 200);
+		});
+		origin.start();
+		baseUrl = "http://127.0.0.1:" + origin.getAddress().getPort();
+	}
+
+	@AfterEach
+	void stopOrigin() {
+		origin.stop(0);
+	}
+
+	@Test
+	void perOriginMetersStopGrowingPastTheTagLimit() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		OriginHealthTracker tracker = new OriginHealthTracker(3, 60000, 1, 0, 100, 3.0, 10000, 2, registry);
+		PipelineMetrics pipelineMetrics = new PipelineMetrics(registry, 2);
+
+		for (int i = 0; i < 5; i++) {
+			String url = "https://site" + i + ".example.com/";
+			pipelineMetrics.timeFetch("fetch-page", url, () -> tracker.execute(url, 1000, timeout -> "ok"));
+		}
+
+		assertEquals(2, registry.find("colorblind.origin.breaker.state").gauges().size());
+		assertEquals(3, registry.find("colorblind.origin.breaker.rejections").functionCounters().size());
+		assertEquals(3, registry.find("colorblind.fetch").timers().size());
+		assertEquals(3, registry.get("colorblind.fetch").tag("origin", "other").timer().count());
+		assertEquals(5, tracker.snapshot().size(), "every origin still has its own breaker");
+	}
+
+	@Test
+	void forgetsLeastRecentlyUsedClosedOriginsPastTheCap() throws Exception {
+		OriginHealthTracker tracker = new OriginHealthTracker(1, 60000, 1, 0, 100, 3.0, 3, 1, new SimpleMeterRegistry());
+
+		tracker.execute("https://tagged.example.com/", 1000, timeout -> "ok");
+		assertThrows(IOException.class, () -> tracker.execute("https://down.example.com/", 1000, timeout -> {
+			throw new IOException("Connection refused");
+		}));
+		for (int i = 0; i < 5; i++) {
+			String url = "https://site" + i + ".example.com/";
+			tracker.execute(url, 1000, timeout -> "ok");
+		}
+
+		assertEquals(Set.of("tagged.example.com", "down.example.com", "site4.example.com"), tracker.snapshot().keySet());
+		assertEquals(OriginHealthTracker.BreakerState.OPEN, tracker.getState("down.example.com"),
+				"an open breaker outlives the cap");
+	}
+
+	@Test
+	void opensBreakerAfterRepeatedServerErrorsAndFailsFast() {
+		OriginHealthTracker tracker = new OriginHealthTracker(3, 60000, 1, 0, 100, 3.0, 10000, 100, new SimpleMeterRegistry());
+
+		for (int i = 0; i < 3; i++) {
+			assertThrows(IOException.class, () -> fetch(tracker, "/error", 5000));
+		}
+		assertEquals(OriginHealthTracker.BreakerState.OPEN, tracker.getState("127.0.0.1"));
+
+		int hitsBefore = hits.get();
+		OriginUnavailableException e = assertThrows(OriginUnavailableException.class,
+				() -> fetch(tracker, "/ok", 5000));
+		assertEquals("127.0.0.1", e.getHost());
+		assertTrue(e.getRetryAfterMs() > 0);
+		assertEquals(hitsBefore, hits.get(), "an open breaker must not call the origin");
+	}
+
+	@Test
+	void halfOpenProbeClosesBreakerOnSuccess() throws Exception {
+		OriginHealthTracker tracker = new OriginHealthTracker(1, 50, 1, 0, 100, 3.0, 10000, 100, new SimpleMeterRegistry());
+
+		assertThrows(IOException.class, () -> fetch(tracker, "/error", 5000));
+		Thread.sleep(100);
+		assertEquals(OriginHealthTracker.BreakerState.HALF_OPEN, tracker.getState("127.0.0.1"));
+
+		assertEquals("ok", fetch(tracker, "/ok", 5000));
+		assertEquals(OriginHealthTracker.BreakerState.CLOSED, tracker.getState("127.0.0.1"));
+	}
+
+	@Test
+	void halfOpenProbeThatThrowsUncheckedReopensInsteadOfWedging() throws Exception {
+		OriginHealthTracker tracker = new OriginHealthTracker(1, 50, 1, 0, 100, 3.0, 10000, 100, new SimpleMeterRegistry());
+
+		assertThrows(IOException.class, () -> fetch(tracker, "/error", 5000));
+		Thread.sleep(100);
+		assertThrows(IllegalArgumentException.class, () -> tracker.execute(baseUrl + "/ok", 5000, timeout -> {
+			throw new IllegalArgumentException("Malformed URL");
+		}));
+		assertEquals(OriginHealthTracker.BreakerState.OPEN, tracker.getState("127.0.0.1"));
+
+		Thread.sleep(100);
+		assertEquals("ok", fetch(tracker, "/ok", 5000));
+		assertEquals(OriginHealthTracker.BreakerState.CLOSED, tracker.getState("127.0.0.1"));
+	}
+
+	@Test
+	void retriesFailedFetchesUpToTheAttemptLimit() {
+		OriginHealthTracker tracker = new OriginHealthTracker(10, 60000, 3, 1, 100, 3.0, 10000, 100, new SimpleMeterRegistry());
+
+		assertThrows(IOException.class, () -> fetch(tracker, "/error", 5000));
+		assertEquals(3, hits.get());
+	}
+
+	@Test
+	void adaptiveTimeoutTracksObservedLatency() throws Exception {
+		OriginHealthTracker tracker = new OriginHealthTracker(10, 60000, 1, 0, 200, 3.0, 10000, 100, new SimpleMeterRegistry());
+
+		// Warm up with fast responses so the timeout shrinks well below the 10s budget
+		for (int i = 0; i < 10; i++) {
+			fetch(tracker, "/ok", 10000);
+		}
+
+		long start = System.nanoTime();
+		assertThrows(SocketTimeoutException.class, () -> fetch(tracker, "/slow", 10000));
+		assertTrue((System.nanoTime() - start) / 1_000_000 < 1500, "slow fetch should time out early");
+	}
+
+	@Test
+	void fetchTimeoutNeverOutlastsTheThreadsDeadline() {
+		OriginHealthTracker tracker = new OriginHealthTracker(10, 60000, 3, 0, 100, 3.0, 10000, 100, new SimpleMeterRegistry());
+
+		long deadline = System.currentTimeMillis() + 300;
+		List<Long> attemptEnds = new CopyOnWriteArrayList<>();
+		tracker.beginDeadline(deadline);
+		try {
+			long start = System.nanoTime();
+			assertThrows(SocketTimeoutException.class, () -> tracker.execute(baseUrl + "/slow", 10000, timeout -> {
+				attemptEnds.add(System.currentTimeMillis() + timeout);
+				return Jsoup.connect(baseUrl + "/slow").timeout(timeout).execute().body();
+			}));
+			assertTrue((System.nanoTime() - start) / 1_000_000 < 1000, "fetch should stop at the deadline");
+			assertFalse(attemptEnds.isEmpty());
+			attemptEnds.forEach(end -> assertTrue(end <= deadline + 20, "every attempt must end by the deadline"));
+		} finally {
+			tracker.endDeadline();
+		}
+	}
+
+	private String fetch(OriginHealthTracker tracker, String path, int maxTimeoutMs) throws IOException {
+		String url = baseUrl + path;
+		return tracker.execute(url, maxTimeoutMs, timeout -> Jsoup.connect(url)
+				.timeout(timeout)
+				.ignoreContentType(true)
+				.execute()
+				.body());
+	}
+
+	private void respond(HttpExchange exchange, int status) throws IOException {
+		hits.incrementAndGet();
+		byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
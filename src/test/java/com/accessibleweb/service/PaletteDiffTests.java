@@ -0,0 +1,47 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.PaletteDrift;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.accessibleweb.model.AnalysisResultFixtures.passingResult;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaletteDiffTests {
+
+	@Test
+	void reportsPaletteChangesAndNewlyFailingPairs() {
+		AnalysisResult previous = passingResult("AAA", List.of("#ffffff"), List.of("#000000", "#1a1a1a"));
+		AnalysisResult current = passingResult("AA", List.of("#ffffff", "#f0f0f0"), List.of("#000000", "#999999"));
+
+		PaletteDrift diff = PaletteDiff.between(previous, current);
+
+		assertTrue(diff.hasChanges());
+		assertEquals(Set.of("#f0f0f0", "#999999"), Set.copyOf(diff.addedColors()));
+		assertEquals(List.of("#1a1a1a"), diff.removedColors());
+		assertEquals(1, diff.newFailingPairs().size());
+		assertEquals("#999999", diff.newFailingPairs().get(0).foreground());
+		assertTrue(diff.resolvedFailingPairs().isEmpty());
+		assertEquals(new PaletteDrift.RatingChange("AAA", "AA", 21.0), diff.rating());
+	}
+
+	@Test
+	void isEmptyWhenNothingChanged() {
+		AnalysisResult result = passingResult("AA", List.of("#ffffff"), List.of("#777777"));
+
+		assertFalse(PaletteDiff.between(result, passingResult("AA", List.of("#FFFFFF"), List.of("#777777"))).hasChanges());
+	}
+
+	@Test
+	void storedDriftWithOmittedPartsReadsBackAsEmptyLists() throws Exception {
+		PaletteDrift stored = new ObjectMapper().readValue("{\"rating\":{\"from\":\"AAA\",\"to\":\"AA\",\"ratio\":5.0}}", PaletteDrift.class);
+
+		assertTrue(stored.addedColors().isEmpty());
+		assertTrue(stored.newFailingPairs().isEmpty());
+		assertTrue(stored.hasChanges());
+	}
+}
@@ -0,0 +1,39 @@
+package com.accessibleweb.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The scraping components wired with small test settings, so tests don't repeat their constructor arguments
+final class ScraperFixtures {
+
+	private ScraperFixtures() {}
+
+	// The collaborators a sampler and a scraper share
+	record Pipeline(OriginHealthTracker tracker, PipelineMetrics metrics, IncrementalAuditCache cache) {}
+
+	// Five failures open an origin's breaker, one attempt per fetch, no retry delay
+	static Pipeline pipeline(MeterRegistry registry, long revalidateAfterMs) {
+		return new Pipeline(new OriginHealthTracker(5, 30000, 1, 0, 1000, 3.0, 10000, 100, registry),
+				new PipelineMetrics(registry, 100), new IncrementalAuditCache(100, revalidateAfterMs));
+	}
+
+	static Pipeline pipeline(MeterRegistry registry) {
+		return pipeline(registry, 60000);
+	}
+
+	static BackgroundImageSampler sampler(Pipeline pipeline, String... allowedDomains) {
+		return new Sampler(pipeline, allowedDomains);
+	}
+
+	static WebScraperService scraper(Pipeline pipeline) {
+		return new WebScraperService(pipeline.tracker(), pipeline.metrics(), pipeline.cache(),
+				sampler(pipeline, "example.com"));
+	}
+
+	// Base for tests that override how image hosts are resolved or images fetched
+	static class Sampler extends BackgroundImageSampler {
+
+		Sampler(Pipeline pipeline, String... allowedDomains) {
+			super(pipeline.tracker(), pipeline.metrics(), pipeline.cache(), allowedDomains, 2, 16, 8, 64, 5242880, 5000);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.accessibleweb.service;
+
+import com.accessibleweb.config.PriorityTaskExecutor;
+import com.accessibleweb.model.AnalysisRecord;
+import com.accessibleweb.model.AnalysisResult;
+import com.accessibleweb.model.DriftEvent;
+import com.accessibleweb.model.WatchStatus;
+import com.accessibleweb.repository.LocalAnalysisHistoryStore;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.accessibleweb.model.AnalysisResultFixtures.emptyResult;
+import static com.accessibleweb.model.AnalysisResultFixtures.passingResult;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WatchListServiceTests {
+
+	@TempDir
+	Path directory;
+
+	private final ColorService colorService = mock(ColorService.class);
+	private final PriorityTaskExecutor executor = new PriorityTaskExecutor(10, 4, new SimpleMeterRegistry());
+	private LocalAnalysisHistoryStore store;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		executor.setCorePoolSize(4);
+		executor.setMaxPoolSize(4);
+		executor.setQueueCapacity(10);
+		executor.initialize();
+		store = new LocalAnalysisHistoryStore(directory, 1 << 16, 0, JsonMapper.builder().findAndAddModules().build());
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	void runsDueWatchesWithinTheConcurrencyCapAndNotAgainUntilTheInterval() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		when(colorService.analyzeAccessibility(anyString(), eq("default"))).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return passingResult("AAA");
+		});
+		WatchListService service = new WatchListService(colorService, store, executor,
+				new String[]{"https://example.com/a", "https://example.com/b"}, 60000, 0, 1, 10);
+
+		service.runDueWatches();
+		assertEquals(1, service.watches().stream().filter(WatchStatus::running).count(), "only one run at a time");
+
+		release.countDown();
+		awaitIdle(service);
+		service.runDueWatches();
+		awaitIdle(service);
+		service.runDueWatches();
+		awaitIdle(service);
+
+		verify(colorService).analyzeAccessibility("https://example.com/a", "default");
+		verify(colorService).analyzeAccessibility("https://example.com/b", "default");
+		for (WatchStatus status : service.watches()) {
+			assertNotNull(status.lastRunAt());
+			assertTrue(status.nextRunAt().isAfter(Instant.now().plusSeconds(50)));
+		}
+	}
+
+	@Test
+	void reportsRealDriftButNotFailedOrEmptyRuns() throws Exception {
+		String url = "https://example.com/page";
+		when(colorService.analyzeAccessibility(url, "default"))
+				.thenReturn(passingResult("AAA", List.of("#ffffff"), List.of("#000000")))
+				.thenThrow(new ScrapingException("Failed to fetch " + url + ": Connection refused", null))
+				.thenReturn(emptyResult())
+				.thenReturn(passingResult("AA", List.of("#ffffff"), List.of("#000000", "#999999")));
+		WatchListService service = new WatchListService(colorService, store, executor, new String[]{url}, 0, 0, 1, 10);
+		List<DriftEvent> events = new CopyOnWriteArrayList<>();
+		service.addListener(events::add);
+
+		for (int run = 0; run < 4; run++) {
+			service.runDueWatches();
+			awaitIdle(service);
+			if (run == 1) assertNotNull(service.watches().get(0).lastError());
+		}
+
+		assertEquals(1, events.size());
+		assertEquals(List.of("#999999"), events.get(0).diff().addedColors());
+		assertTrue(events.get(0).diff().removedColors().isEmpty());
+		assertEquals(1, service.drift(url, Instant.EPOCH, Instant.now()).size());
+		assertNull(service.watches().get(0).lastError());
+	}
+
+	@Test
+	void baselineAfterRestartComesFromWatchRunsOfTheSameMode() throws Exception {
+		String url = "https://example.com/page";
+		AnalysisResult interactive = passingResult("AAA", List.of("#ffffff"), List.of("#000000"));
+		store.append(new AnalysisRecord<>(url, Instant.ofEpochMilli(1000), new AnalysisResult("protanopia",
+				interactive.colorAnalysis(), interactive.accessibility(), interactive.rawData(), interactive.timings())));
+		store.append(new AnalysisRecord<>(WatchListService.WATCH_KEY_PREFIX + "default:" + url, Instant.ofEpochMilli(2000),
+				passingResult("AAA", List.of("#ffffff"), List.of("#000000", "#333333"))));
+		when(colorService.analyzeAccessibility(url, "default"))
+				.thenReturn(passingResult("AAA", List.of("#ffffff"), List.of("#000000", "#333333")))
+				.thenReturn(passingResult("AAA", List.of("#ffffff"), List.of("#000000", "#333333", "#999999")));
+
+		List<DriftEvent> events = new CopyOnWriteArrayList<>();
+		WatchListService service = new WatchListService(colorService, store, executor, new String[]{url}, 0, 0, 1, 10);
+		service.addListener(events::add);
+		service.runDueWatches();
+		awaitIdle(service);
+		assertTrue(events.isEmpty(), "the protanopia analysis stored for the url is not the baseline");
+
+		// After another restart the baseline is the run the previous instance stored
+		WatchListService restarted = new WatchListService(colorService, store, executor, new String[]{url}, 0, 0, 1, 10);
+		restarted.addListener(events::add);
+		restarted.runDueWatches();
+		awaitIdle(restarted);
+		assertEquals(1, events.size());
+		assertEquals(List.of("#999999"), events.get(0).diff().addedColors());
+	}
+
+	private static void awaitIdle(WatchListService service) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			if (service.watches().stream().noneMatch(WatchStatus::running)) return;
+			Thread.sleep(10);
+		}
+		fail("watch runs did not finish");
+	}
+}
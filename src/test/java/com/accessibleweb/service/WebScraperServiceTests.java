@@ -0,0 +1,132 @@
+package com.accessibleweb.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebScraperServiceTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final List<String> stylesheetResponses = new CopyOnWriteArrayList<>();
+	private HttpServer origin;
+	private volatile String css = "body { background-color: #123456; }";
+	private volatile String etag = "\"v1\"";
+
+	@BeforeEach
+	void setUp() throws IOException {
+		origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		origin.createContext("/page", exchange -> respond(exchange, 200, "text/html",
+				"<html><head><link rel=\"stylesheet\" href=\"/style.css\"></head><body><p>Hello</p></body></html>"));
+		origin.createContext("/style.css", exchange -> {
+			String currentEtag = etag;
+			if (currentEtag != null) exchange.getResponseHeaders().set("ETag", currentEtag);
+			if (currentEtag != null && currentEtag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				stylesheetResponses.add("304");
+				exchange.sendResponseHeaders(304, -1);
+				exchange.close();
+				return;
+			}
+			stylesheetResponses.add("200");
+			respond(exchange, 200, "text/css", css);
+		});
+		origin.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		origin.stop(0);
+	}
+
+	@Test
+	void stylesheetAnsweringNotModifiedReusesItsColors() {
+		WebScraperService scraper = scraper(0);
+
+		Map<String, String> first = scraper.extractColors(url(), true);
+		Map<String, String> second = scraper.extractColors(url(), true);
+
+		assertTrue(first.containsValue("#123456"));
+		assertEquals(first, second);
+		assertEquals(List.of("200", "304"), stylesheetResponses);
+		assertEquals(1.0, hits("stylesheet"));
+		assertEquals(1.0, hits("page"), "an unchanged page body is reused by content hash");
+	}
+
+	@Test
+	void stylesheetWithUnchangedContentIsReusedByHashWithoutValidators() {
+		etag = null;
+		WebScraperService scraper = scraper(0);
+
+		Map<String, String> first = scraper.extractColors(url(), true);
+		Map<String, String> second = scraper.extractColors(url(), true);
+
+		assertEquals(first, second);
+		assertEquals(List.of("200", "200"), stylesheetResponses);
+		assertEquals(1.0, hits("stylesheet"));
+		assertEquals(1.0, misses("stylesheet"));
+	}
+
+	@Test
+	void changedStylesheetIsExtractedAgain() {
+		WebScraperService scraper = scraper(0);
+		assertTrue(scraper.extractColors(url(), true).containsValue("#123456"));
+
+		css = "body { background-color: #654321; }";
+		etag = "\"v2\"";
+		Map<String, String> colors = scraper.extractColors(url(), true);
+
+		assertTrue(colors.containsValue("#654321"));
+		assertFalse(colors.containsValue("#123456"));
+		assertEquals(List.of("200", "200"), stylesheetResponses);
+		assertEquals(2.0, misses("stylesheet"));
+	}
+
+	@Test
+	void stylesheetIsNotRevalidatedWithinTheWindow() {
+		WebScraperService scraper = scraper(60000);
+
+		scraper.extractColors(url(), true);
+		css = "body { background-color: #654321; }";
+		etag = "\"v2\"";
+		Map<String, String> colors = scraper.extractColors(url(), true);
+
+		assertTrue(colors.containsValue("#123456"), "the cached extraction is served until the window passes");
+		assertEquals(List.of("200"), stylesheetResponses);
+		assertEquals(1.0, hits("stylesheet"));
+	}
+
+	private WebScraperService scraper(long revalidateAfterMs) {
+		return ScraperFixtures.scraper(ScraperFixtures.pipeline(registry, revalidateAfterMs));
+	}
+
+	private String url() {
+		return "http://127.0.0.1:" + origin.getAddress().getPort() + "/page";
+	}
+
+	private double hits(String cache) {
+		return registry.counter("colorblind.cache.hits", "cache", cache).count();
+	}
+
+	private double misses(String cache) {
+		return registry.counter("colorblind.cache.misses", "cache", cache).count();
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType);
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}